@@ -2,8 +2,10 @@ package com.cdamayab.flox;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = "com.cdamayab.flox")
+@EnableScheduling
 public class DemoApplication {
 
 	public static void main(String[] args) {
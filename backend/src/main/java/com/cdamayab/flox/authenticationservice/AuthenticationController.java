@@ -3,6 +3,7 @@ package com.cdamayab.flox.authenticationservice;
 import com.cdamayab.flox.authenticationservice.model.LoginRequest;
 import com.cdamayab.flox.authenticationservice.model.Users;
 import com.cdamayab.flox.authenticationservice.repository.UsersRepository;
+import com.cdamayab.flox.common.CacheStats;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.Operation;
@@ -29,6 +30,15 @@ public class AuthenticationController {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private JwtTokens jwtTokens;
+
+    @Autowired
+    private SessionRegistry sessionRegistry;
+
+    @Autowired
+    private TokenRevocations tokenRevocations;
+
     @Operation(summary = "Login a user and generate a JWT token")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Login successful and token returned"),
@@ -51,6 +61,27 @@ public class AuthenticationController {
         return ResponseEntity.noContent().build();
     }
 
+    @Operation(summary = "Verified token cache statistics", description = "Fetch hit, miss and eviction counters of the cache of verified JWT tokens used by the authentication filter.")
+    @ApiResponse(responseCode = "200", description = "Cache statistics retrieved successfully")
+    @GetMapping("/metrics/token-cache")
+    public CacheStats getTokenCacheStats() {
+        return jwtTokens.getCacheStats();
+    }
+
+    @Operation(summary = "Session registry statistics", description = "Fetch the number of sessions held in memory, the lookup counters and the throughput of the expired-session purge.")
+    @ApiResponse(responseCode = "200", description = "Session statistics retrieved successfully")
+    @GetMapping("/metrics/sessions")
+    public SessionStats getSessionStats() {
+        return sessionRegistry.getStats();
+    }
+
+    @Operation(summary = "Token revocation statistics", description = "Fetch the number of revoked tokens held in memory and the Bloom filter counters of the revocation check.")
+    @ApiResponse(responseCode = "200", description = "Revocation statistics retrieved successfully")
+    @GetMapping("/metrics/revocations")
+    public RevocationStats getRevocationStats() {
+        return tokenRevocations.getStats();
+    }
+
     @Operation(summary = "Register a new user")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "User registered successfully"),
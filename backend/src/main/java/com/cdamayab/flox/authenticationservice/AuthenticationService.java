@@ -1,14 +1,11 @@
 package com.cdamayab.flox.authenticationservice;
 
-import com.cdamayab.flox.authenticationservice.model.ActiveSessions;
 import com.cdamayab.flox.authenticationservice.model.LoginRequest;
 import com.cdamayab.flox.authenticationservice.model.Users;
-import com.cdamayab.flox.authenticationservice.repository.ActiveSessionsRepository;
 import com.cdamayab.flox.authenticationservice.repository.UsersRepository;
 
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -28,11 +25,17 @@ public class AuthenticationService {
     private UsersRepository userRepository;
 
     @Autowired
-    private ActiveSessionsRepository activeSessionRepository;
+    private SessionRegistry sessionRegistry;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private JwtTokens jwtTokens;
+
+    @Autowired
+    private TokenRevocations tokenRevocations;
+
     /**
      * Authenticates a user by validating their username and password.
      * 
@@ -69,55 +72,50 @@ public class AuthenticationService {
         LocalDateTime now = LocalDateTime.now();
         LocalDateTime expiry = now.plusHours(2);
         
-        String token = Jwts.builder()
-                .setSubject(username)
-                .setIssuedAt(Date.from(now.atZone(ZoneId.systemDefault()).toInstant()))
-                .setExpiration(Date.from(expiry.atZone(ZoneId.systemDefault()).toInstant()))
-                .signWith(SignatureAlgorithm.HS256, SECRET_KEY.getBytes())
-                .compact();
-
-        // Save session in the database
-        ActiveSessions session = new ActiveSessions();
-        session.setToken(token);
-        session.setUsername(username);
-        session.setCreatedAt(now);
-        session.setExpiresAt(expiry);
-        
-        activeSessionRepository.save(session);
+        String token = jwtTokens.generate(username,
+                Date.from(now.atZone(ZoneId.systemDefault()).toInstant()),
+                Date.from(expiry.atZone(ZoneId.systemDefault()).toInstant()));
+
+        // Save session in the database and the registry
+        sessionRegistry.register(token, username, now, expiry);
 
         return token;
     }
 
     /**
-     * Validates a JWT token by checking its integrity and existence in the active session repository.
+     * Validates a JWT token by checking its integrity and existence in the active session registry.
      * 
      * @param token The JWT token to validate.
      * @return True if the token is valid, false otherwise.
-     * @throws Exception if the token is invalid or not found in the active session repository.
+     * @throws Exception if the token is invalid or not found in the active session registry.
      */
     public boolean validateToken(String token) throws Exception {
         // Parse and validate token
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(SECRET_KEY.getBytes())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = jwtTokens.parse(token);
 
         String username = claims.getSubject();
 
-        // Check if the token exists in the active session repository
-        ActiveSessions session = activeSessionRepository.findByToken(token)
+        // Check if the token has an active session
+        SessionRegistry.Session session = sessionRegistry.find(token)
             .orElseThrow(() -> new Exception("Token not found"));
 
-        return session != null && session.getUsername().equals(username);
+        return session.username().equals(username);
     }
 
     /**
-     * Logs out a user by deleting their active session using the provided token.
+     * Logs out a user by deleting their active session using the provided token, and revokes
+     * the token so it is rejected by the authentication filter until it expires.
      * 
      * @param token The JWT token associated with the user's session.
      */
     public void logout(String token) {
-        activeSessionRepository.deleteByToken(token);
+        sessionRegistry.remove(token);
+        try {
+            JwtTokens.VerifiedToken verified = jwtTokens.verify(token);
+            tokenRevocations.revoke(verified.id(), verified.expiresAtMillis());
+        } catch (JwtException e) {
+            // Invalid or expired: the filter rejects it already
+        }
+        jwtTokens.forget(token);
     }
 }
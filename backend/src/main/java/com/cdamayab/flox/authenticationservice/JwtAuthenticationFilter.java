@@ -1,7 +1,5 @@
 package com.cdamayab.flox.authenticationservice;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.JwtException;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -18,10 +16,18 @@ import java.util.Collections;
  * Filter that processes JWT tokens and sets the authentication in the SecurityContext if valid.
  * This filter will intercept requests and validate the provided JWT token in the Authorization header.
  * If valid, it extracts the username and sets it as the authentication in the security context.
+ * Tokens already verified are answered from the cache of {@link JwtTokens}; revoked tokens are
+ * rejected with 401 Unauthorized.
  */
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final String SECRET_KEY = AuthenticationService.SECRET_KEY;
+    private final JwtTokens jwtTokens;
+    private final TokenRevocations tokenRevocations;
+
+    public JwtAuthenticationFilter(JwtTokens jwtTokens, TokenRevocations tokenRevocations) {
+        this.jwtTokens = jwtTokens;
+        this.tokenRevocations = tokenRevocations;
+    }
 
     /**
      * Process/intercept the incoming HTTP request to validate the JWT token.
@@ -43,7 +49,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         // if no auth header or is not bearer = continues without no auth
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            System.out.println("JwtAuthenticationFilter:doFilterInternal ------------------USER NULL");
             chain.doFilter(request, response);
             return;
         }
@@ -52,7 +57,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             // Validate and extract the username from token
-            username = extractUsername(jwtToken);
+            JwtTokens.VerifiedToken verified = jwtTokens.verify(jwtToken);
+            if (tokenRevocations.isRevoked(verified.id(), verified.expiresAtMillis())) {
+                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Token revoked");
+                return;
+            }
+            username = verified.subject();
 
             // Ensure is not existing authentication in the security context
             if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
@@ -72,19 +82,4 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         // Continue
         chain.doFilter(request, response);
     }
-
-    /**
-     * Extracts the username from the provided JWT token.
-     * 
-     * @param token The JWT token from which the username will be extracted.
-     * @return The username (subject) contained in the JWT token.
-     */
-    private String extractUsername(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(SECRET_KEY.getBytes())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return claims.getSubject();
-    }
 }
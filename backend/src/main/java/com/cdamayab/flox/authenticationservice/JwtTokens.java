@@ -0,0 +1,149 @@
+package com.cdamayab.flox.authenticationservice;
+
+import com.cdamayab.flox.common.CacheStats;
+import com.cdamayab.flox.common.ClockCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Signs and verifies the JWT tokens of the application.
+ *
+ * The signing key and the parser are built once and shared: the parser is immutable and thread-safe.
+ * Tokens whose signature was already verified are remembered in a bounded cache, keyed by the SHA-256
+ * hash of the token so the tokens themselves are not kept in memory. Every authenticated request reads
+ * it, so it is a {@link ClockCache}, whose hits take no lock. A cached token is only trusted until its
+ * own expiration time, so the cache never extends the life of a token. Revoked tokens are still
+ * verified here; they are rejected by {@link TokenRevocations}.
+ */
+@Component
+public class JwtTokens {
+
+    private final SecretKey key = Keys.hmacShaKeyFor(AuthenticationService.SECRET_KEY.getBytes(StandardCharsets.UTF_8));
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(key).build();
+
+    @Value("${flox.auth.token-cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    @Value("${flox.auth.token-cache.ttl:PT5M}")
+    private Duration cacheTtl;
+
+    private ClockCache<String, VerifiedToken> verified;
+
+    @PostConstruct
+    void init() {
+        verified = new ClockCache<>(cacheMaxSize, cacheTtl);
+    }
+
+    /**
+     * Creates a signed token with a random ID ({@code jti} claim), used to revoke it.
+     *
+     * @param username  the subject of the token
+     * @param issuedAt  the issue time
+     * @param expiresAt the expiration time
+     * @return the compact token
+     */
+    public String generate(String username, Date issuedAt, Date expiresAt) {
+        return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(username)
+                .setIssuedAt(issuedAt)
+                .setExpiration(expiresAt)
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    /**
+     * Verifies the signature and expiration of a token and returns its claims, without the cache.
+     *
+     * @param token the compact token
+     * @return the claims of the token
+     * @throws JwtException if the token is malformed, badly signed or expired
+     */
+    public Claims parse(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * Verifies a token. Tokens seen before are answered from the cache, skipping the parsing and the
+     * signature check, as long as they have not expired.
+     *
+     * @param token the compact token
+     * @return the subject, ID and expiration of the token
+     * @throws JwtException if the token is malformed, badly signed or expired
+     */
+    public VerifiedToken verify(String token) {
+        String hash = hash(token);
+        VerifiedToken cached = verified.get(hash);
+        if (cached != null) {
+            if (cached.isValidAt(System.currentTimeMillis())) {
+                return cached;
+            }
+            verified.invalidate(hash);
+        }
+        Claims claims = parse(token);
+        Date expiration = claims.getExpiration();
+        // Tokens issued before the jti claim was added are identified by their hash
+        VerifiedToken verifiedToken = new VerifiedToken(claims.getSubject(), claims.getId() != null ? claims.getId() : hash,
+                expiration == null ? Long.MAX_VALUE : expiration.getTime());
+        verified.put(hash, verifiedToken);
+        return verifiedToken;
+    }
+
+    /**
+     * Drops a token from the cache, so its next use is verified again.
+     *
+     * @param token the compact token
+     */
+    public void forget(String token) {
+        verified.invalidate(hash(token));
+    }
+
+    /**
+     * @return hit, miss and eviction counters of the verified-token cache
+     */
+    public CacheStats getCacheStats() {
+        return verified.stats();
+    }
+
+    /**
+     * @param token the compact token
+     * @return the Base64 SHA-256 hash of the token
+     */
+    static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * A token whose signature and expiration were checked.
+     *
+     * @param subject         the username
+     * @param id              the {@code jti} claim, or the token hash if the token has none
+     * @param expiresAtMillis the expiration time in epoch milliseconds
+     */
+    public record VerifiedToken(String subject, String id, long expiresAtMillis) {
+        boolean isValidAt(long nowMillis) {
+            return nowMillis < expiresAtMillis;
+        }
+    }
+}
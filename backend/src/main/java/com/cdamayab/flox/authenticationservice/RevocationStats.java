@@ -0,0 +1,22 @@
+package com.cdamayab.flox.authenticationservice;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Snapshot of the counters of {@link TokenRevocations}.
+ */
+@Schema(description = "Usage counters of the token revocation check")
+public record RevocationStats(
+        @Schema(description = "Expiry windows currently held in memory", example = "3") int generations,
+        @Schema(description = "Revoked tokens not yet expired", example = "42") long revoked,
+        @Schema(description = "Revocation checks made by the authentication filter", example = "1000000") long checks,
+        @Schema(description = "Checks the Bloom filter could not rule out", example = "120") long bloomHits,
+        @Schema(description = "Bloom filter hits the exact set found not revoked", example = "3") long falsePositives) {
+
+    /**
+     * @return fraction of checks that had to consult the exact set although the token was not revoked
+     */
+    public double getFalsePositiveRate() {
+        return checks == 0 ? 0.0 : (double) falsePositives / checks;
+    }
+}
@@ -34,11 +34,13 @@ public class SecurityConfig {
      * Provides a JwtAuthenticationFilter bean to filter incoming requests for JWT authentication.
      * This filter processes JWT tokens in the Authorization header and sets the authentication in the security context.
      *
+     * @param jwtTokens The shared token parser and verified-token cache.
+     * @param tokenRevocations The revoked tokens.
      * @return A JwtAuthenticationFilter instance.
      */
     @Bean
-    public JwtAuthenticationFilter jwtAuthenticationFilter() {
-        return new JwtAuthenticationFilter();
+    public JwtAuthenticationFilter jwtAuthenticationFilter(JwtTokens jwtTokens, TokenRevocations tokenRevocations) {
+        return new JwtAuthenticationFilter(jwtTokens, tokenRevocations);
     }
 
     /**
@@ -48,13 +50,15 @@ public class SecurityConfig {
      * It also defines session management to be stateless (no HTTP session used).
      *
      * @param http The HttpSecurity instance used to configure web security.
+     * @param jwtAuthenticationFilter The JWT authentication filter.
      * @return A SecurityFilterChain bean that contains the configured HTTP security rules.
      * @throws Exception If an error occurs during the configuration process.
      */
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity http, JwtAuthenticationFilter jwtAuthenticationFilter) throws Exception {
         http.csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(auth -> auth
+                .requestMatchers("/auth/metrics/**").authenticated() // Before the /auth/** rule, first match wins
                 .requestMatchers("/auth/**").permitAll()
                 .requestMatchers("/swagger-ui/**").permitAll() 
                 .requestMatchers("/v3/api-docs/**").permitAll()
@@ -64,7 +68,7 @@ public class SecurityConfig {
                 .requestMatchers("/api/reports**").permitAll()
                 .anyRequest().authenticated()
             )
-            .addFilterBefore(jwtAuthenticationFilter(), UsernamePasswordAuthenticationFilter.class)
+            .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class)
             .sessionManagement(session -> 
             session.sessionCreationPolicy(SessionCreationPolicy.STATELESS) // Stateless session
         );
@@ -87,6 +91,7 @@ public class SecurityConfig {
         corsConfig.addAllowedMethod("*");                       // Allows all HTTP methods (GET, POST, PUT, DELETE, etc.).
         corsConfig.addAllowedHeader("*");                       // Allows all headers to be sent with the request.
         corsConfig.setAllowCredentials(true);                   // Allows credentials (cookies, authorization headers, etc.)
+        corsConfig.addExposedHeader("ETag");                    // Lets the frontend read ETags to send If-None-Match / If-Match.
 
         // Register the CORS configuration to apply to all routes in the application.
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
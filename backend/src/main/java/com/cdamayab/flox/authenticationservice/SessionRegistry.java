@@ -0,0 +1,179 @@
+package com.cdamayab.flox.authenticationservice;
+
+import com.cdamayab.flox.authenticationservice.model.ActiveSessions;
+import com.cdamayab.flox.authenticationservice.repository.ActiveSessionsRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The active login sessions, kept in the {@code active_sessions} table and mirrored in memory.
+ *
+ * Sessions are keyed by the SHA-256 hash of their token (see {@link JwtTokens#hash(String)}), which is
+ * short, fixed-length and indexed, and keeps the tokens themselves out of the database. Writes go to
+ * the table first and then to memory, so lookups of sessions opened or checked on this instance are
+ * answered without SQL; unknown hashes (sessions of another instance, or opened before a restart)
+ * fall back to the unique index. A logout on another instance is only seen here once the session
+ * expires.
+ *
+ * A closed session leaves a marker in memory for {@link #CLOSED_RETENTION}, so a lookup that read the
+ * row just before it was deleted can not cache the session again after the logout.
+ *
+ * Expired sessions are deleted in batches by a scheduled purge, so the table does not grow forever.
+ */
+@Component
+public class SessionRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(SessionRegistry.class);
+
+    /** How long the marker of a closed session is kept, well beyond the duration of any lookup. */
+    static final Duration CLOSED_RETENTION = Duration.ofMinutes(1);
+
+    @Autowired
+    private ActiveSessionsRepository activeSessionRepository;
+
+    @Value("${flox.auth.sessions.purge-batch-size:1000}")
+    private int purgeBatchSize;
+
+    private final ConcurrentMap<String, Session> sessions = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder purged = new LongAdder();
+    private volatile LastPurge lastPurge = new LastPurge(null, 0, 0);
+    private volatile boolean stopping;
+
+    /**
+     * Records a new session.
+     *
+     * @param token     the token of the session
+     * @param username  the user the token was issued to
+     * @param createdAt the issue time
+     * @param expiresAt the expiration time
+     */
+    public void register(String token, String username, LocalDateTime createdAt, LocalDateTime expiresAt) {
+        String hash = JwtTokens.hash(token);
+        activeSessionRepository.save(new ActiveSessions(hash, username, createdAt, expiresAt));
+        sessions.put(hash, new Session(username, expiresAt));
+    }
+
+    /**
+     * Finds the session of a token, unless it was closed or has expired.
+     *
+     * @param token the token of the session
+     * @return the session, or empty if there is no active session for the token
+     */
+    public Optional<Session> find(String token) {
+        String hash = JwtTokens.hash(token);
+        LocalDateTime now = LocalDateTime.now();
+        Session session = sessions.get(hash);
+        if (session != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            session = activeSessionRepository.findByTokenHash(hash)
+                    .map(row -> new Session(row.getUsername(), row.getExpiresAt()))
+                    .orElse(null);
+            if (session == null) {
+                return Optional.empty();
+            }
+            // Never replaces the marker of a session closed while the row was being read
+            Session current = sessions.putIfAbsent(hash, session);
+            if (current != null) {
+                session = current;
+            }
+        }
+        if (!session.isActiveAt(now)) {
+            sessions.remove(hash, session);
+            return Optional.empty();
+        }
+        return session.isClosed() ? Optional.empty() : Optional.of(session);
+    }
+
+    /**
+     * Closes the session of a token.
+     *
+     * @param token the token of the session
+     */
+    public void remove(String token) {
+        String hash = JwtTokens.hash(token);
+        activeSessionRepository.deleteByTokenHash(hash);
+        sessions.put(hash, Session.closed(LocalDateTime.now().plus(CLOSED_RETENTION)));
+    }
+
+    /**
+     * @return the registry size, including the markers of closed sessions, and the purge counters
+     */
+    public SessionStats getStats() {
+        LastPurge last = lastPurge;
+        return new SessionStats(sessions.size(), hits.sum(), misses.sum(), purged.sum(),
+                last.startedAt(), last.rows(), last.millis());
+    }
+
+    /**
+     * Deletes the expired sessions, batch by batch, and drops them and the old closed markers from memory.
+     */
+    @Scheduled(fixedDelayString = "${flox.auth.sessions.purge-interval:PT10M}",
+            initialDelayString = "${flox.auth.sessions.purge-interval:PT10M}")
+    public void purge() {
+        LocalDateTime now = LocalDateTime.now();
+        long started = System.nanoTime();
+        sessions.values().removeIf(session -> !session.isActiveAt(now));
+        long total = 0;
+        while (!stopping) {
+            int deleted;
+            try {
+                deleted = activeSessionRepository.deleteExpiredBefore(now, purgeBatchSize);
+            } catch (RuntimeException e) {
+                log.warn("Expired session purge stopped after {} sessions", total, e);
+                break;
+            }
+            total += deleted;
+            purged.add(deleted);
+            if (deleted < purgeBatchSize) {
+                break;
+            }
+        }
+        long millis = (System.nanoTime() - started) / 1_000_000;
+        lastPurge = new LastPurge(now, total, millis);
+        if (total > 0) {
+            log.info("Purged {} sessions expired before {} in {} ms", total, now, millis);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopping = true;
+    }
+
+    /**
+     * An active session: the user of the token and when it expires.
+     * In memory, a session without user marks a closed session until {@code expiresAt}.
+     */
+    public record Session(String username, LocalDateTime expiresAt) {
+        static Session closed(LocalDateTime until) {
+            return new Session(null, until);
+        }
+
+        boolean isClosed() {
+            return username == null;
+        }
+
+        boolean isActiveAt(LocalDateTime now) {
+            return expiresAt == null || expiresAt.isAfter(now);
+        }
+    }
+
+    private record LastPurge(LocalDateTime startedAt, long rows, long millis) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.cdamayab.flox.authenticationservice;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+/**
+ * Snapshot of the counters of the {@link SessionRegistry}.
+ */
+@Schema(description = "Usage counters of the in-memory session registry and of the expired-session purge")
+public record SessionStats(
+        @Schema(description = "Sessions currently held in memory", example = "350") int size,
+        @Schema(description = "Lookups answered from memory", example = "9500") long hits,
+        @Schema(description = "Lookups that went to the database", example = "40") long misses,
+        @Schema(description = "Expired sessions deleted since startup", example = "12000") long purged,
+        @Schema(description = "Start of the last purge run, null if none ran yet") LocalDateTime lastPurgeAt,
+        @Schema(description = "Expired sessions deleted by the last purge run", example = "800") long lastPurgeRows,
+        @Schema(description = "Duration of the last purge run in milliseconds", example = "120") long lastPurgeMillis) {
+
+    /**
+     * @return rows deleted per second by the last purge run
+     */
+    public double getLastPurgeRowsPerSecond() {
+        return lastPurgeMillis == 0 ? lastPurgeRows : lastPurgeRows * 1000.0 / lastPurgeMillis;
+    }
+}
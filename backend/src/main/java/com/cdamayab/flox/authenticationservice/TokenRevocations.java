@@ -0,0 +1,238 @@
+package com.cdamayab.flox.authenticationservice;
+
+import com.cdamayab.flox.authenticationservice.model.RevokedToken;
+import com.cdamayab.flox.authenticationservice.repository.RevokedTokensRepository;
+import com.cdamayab.flox.common.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Revoked tokens, checked by {@link JwtAuthenticationFilter} on every request.
+ *
+ * Revocations are grouped in generations by the expiration window of the token. Each generation has
+ * a Bloom filter and the exact set of revoked token IDs; the exact set is only read when the Bloom
+ * filter reports the ID, so a check of a token that was never revoked is a few hash computations and
+ * array reads. Once a window is over, every token in it has expired and the parser rejects it anyway,
+ * so the whole generation is dropped: memory only holds the revocations of tokens still valid.
+ *
+ * Revocations are also written to the {@code revoked_tokens} table. It is loaded at startup and polled
+ * for the revocations made by other instances, which are enforced here within the sync interval.
+ */
+@Component
+public class TokenRevocations {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocations.class);
+
+    @Autowired
+    private RevokedTokensRepository revokedTokensRepository;
+
+    @Value("${flox.auth.revocation.window:PT1H}")
+    private Duration window;
+    private long windowMillis;
+
+    @Value("${flox.auth.revocation.expected-per-window:10000}")
+    private int expectedPerWindow;
+
+    @Value("${flox.auth.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${flox.auth.revocation.sync-overlap:PT1M}")
+    private Duration syncOverlap;
+
+    @Value("${flox.auth.revocation.purge-batch-size:1000}")
+    private int purgeBatchSize;
+
+    // Copy on write, a handful of generations; readers scan it without locking
+    private volatile Generation[] generations = new Generation[0];
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder bloomHits = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    private LocalDateTime syncedAt; // Guarded by this
+    private volatile boolean stopping;
+
+    @PostConstruct
+    void init() {
+        windowMillis = window.toMillis();
+    }
+
+    /**
+     * Revokes a token until it expires.
+     *
+     * @param tokenId         the ID of the token, see {@link JwtTokens.VerifiedToken#id()}
+     * @param expiresAtMillis the expiration time of the token, in epoch milliseconds
+     */
+    public void revoke(String tokenId, long expiresAtMillis) {
+        long now = System.currentTimeMillis();
+        if (expiresAtMillis <= now) {
+            return; // Already unusable
+        }
+        try {
+            revokedTokensRepository.save(new RevokedToken(tokenId, toDateTime(expiresAtMillis), toDateTime(now)));
+        } catch (DataIntegrityViolationException e) {
+            // Revoked already, by a previous logout with the same token
+        }
+        remember(tokenId, expiresAtMillis);
+    }
+
+    /**
+     * @param tokenId         the ID of the token
+     * @param expiresAtMillis the expiration time of the token, in epoch milliseconds
+     * @return true if the token was revoked
+     */
+    public boolean isRevoked(String tokenId, long expiresAtMillis) {
+        checks.increment();
+        long bucket = Math.floorDiv(expiresAtMillis, windowMillis);
+        for (Generation generation : generations) {
+            if (generation.bucket == bucket) {
+                if (!generation.bloom.mightContain(tokenId)) {
+                    return false;
+                }
+                bloomHits.increment();
+                if (generation.exact.contains(tokenId)) {
+                    return true;
+                }
+                falsePositives.increment();
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the generation and check counters
+     */
+    public RevocationStats getStats() {
+        long revoked = 0;
+        Generation[] current = generations;
+        for (Generation generation : current) {
+            revoked += generation.exact.size();
+        }
+        return new RevocationStats(current.length, revoked, checks.sum(), bloomHits.sum(), falsePositives.sum());
+    }
+
+    /**
+     * Loads the revocations of the tokens not yet expired: all of them on startup, then the ones
+     * recorded since the previous sync. The overlap covers late commits and clock skew between
+     * instances; reading a revocation twice is harmless.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${flox.auth.revocation.sync-interval:PT5S}",
+            initialDelayString = "${flox.auth.revocation.sync-interval:PT5S}")
+    public synchronized void sync() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            List<RevokedToken> revoked = syncedAt == null
+                    ? revokedTokensRepository.findByExpiresAtAfter(now)
+                    : revokedTokensRepository.findByRevokedAtGreaterThanEqualAndExpiresAtAfter(syncedAt.minus(syncOverlap), now);
+            for (RevokedToken token : revoked) {
+                remember(token.getTokenId(), token.getExpiresAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+            }
+            syncedAt = now;
+        } catch (RuntimeException e) {
+            log.warn("Token revocation sync failed", e);
+        }
+    }
+
+    /**
+     * Drops the generations whose tokens have all expired, and deletes their rows in batches.
+     */
+    @Scheduled(fixedDelayString = "${flox.auth.revocation.rotate-interval:PT10M}",
+            initialDelayString = "${flox.auth.revocation.rotate-interval:PT10M}")
+    public void rotate() {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            generations = Arrays.stream(generations)
+                    .filter(generation -> (generation.bucket + 1) * windowMillis > now)
+                    .toArray(Generation[]::new);
+        }
+        LocalDateTime cutoff = toDateTime(now);
+        long total = 0;
+        while (!stopping) {
+            int deleted;
+            try {
+                deleted = revokedTokensRepository.deleteExpiredBefore(cutoff, purgeBatchSize);
+            } catch (RuntimeException e) {
+                log.warn("Expired revocation purge stopped after {} rows", total, e);
+                break;
+            }
+            total += deleted;
+            if (deleted < purgeBatchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Purged {} revocations of tokens expired before {}", total, cutoff);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopping = true;
+    }
+
+    /**
+     * Adds a revocation to memory only.
+     */
+    void remember(String tokenId, long expiresAtMillis) {
+        if (expiresAtMillis <= System.currentTimeMillis()) {
+            return;
+        }
+        Generation generation = generationFor(Math.floorDiv(expiresAtMillis, windowMillis));
+        // Exact set first: a reader that sees the Bloom bits also finds the ID
+        generation.exact.add(tokenId);
+        generation.bloom.add(tokenId);
+    }
+
+    private synchronized Generation generationFor(long bucket) {
+        for (Generation generation : generations) {
+            if (generation.bucket == bucket) {
+                return generation;
+            }
+        }
+        Generation created = new Generation(bucket, new BloomFilter(expectedPerWindow, falsePositiveRate));
+        List<Generation> next = new ArrayList<>(Arrays.asList(generations));
+        next.add(created);
+        generations = next.toArray(Generation[]::new);
+        return created;
+    }
+
+    private static LocalDateTime toDateTime(long epochMillis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault());
+    }
+
+    /**
+     * The revocations of the tokens expiring in one window.
+     */
+    private static final class Generation {
+        final long bucket;
+        final BloomFilter bloom;
+        final Set<String> exact = ConcurrentHashMap.newKeySet();
+
+        Generation(long bucket, BloomFilter bloom) {
+            this.bucket = bucket;
+            this.bloom = bloom;
+        }
+    }
+}
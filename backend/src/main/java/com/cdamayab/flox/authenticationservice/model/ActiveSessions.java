@@ -1,9 +1,12 @@
 package com.cdamayab.flox.authenticationservice.model;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import java.time.LocalDateTime;
 import lombok.Getter;
 import lombok.Setter;
@@ -12,20 +15,27 @@ import lombok.Setter;
 @Getter
 @Setter
 @Entity
+@Table(name = "active_sessions", indexes = {
+    // Sessions are looked up by the SHA-256 of their token, never by the token itself
+    @Index(name = "ux_active_sessions_token_hash", columnList = "token_hash", unique = true),
+    @Index(name = "idx_active_sessions_expires_at", columnList = "expires_at")
+})
 public class ActiveSessions {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
-    private String token;
+    @Column(name = "token_hash", length = 44)
+    private String tokenHash;
     private String username;
     private LocalDateTime createdAt;
+    @Column(name = "expires_at")
     private LocalDateTime expiresAt;
 
     public ActiveSessions() {} // Default constructor for JPA
 
-    public ActiveSessions(String token, String username, LocalDateTime createdAt, LocalDateTime expiresAt) {
-        this.token = token;
+    public ActiveSessions(String tokenHash, String username, LocalDateTime createdAt, LocalDateTime expiresAt) {
+        this.tokenHash = tokenHash;
         this.username = username;
         this.createdAt = createdAt;
         this.expiresAt = expiresAt;
@@ -2,11 +2,26 @@ package com.cdamayab.flox.authenticationservice.repository;
 
 import com.cdamayab.flox.authenticationservice.model.ActiveSessions;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 @Repository
 public interface ActiveSessionsRepository extends JpaRepository<ActiveSessions, Long> {
-    void deleteByToken(String token);
-    Optional<ActiveSessions> findByToken(String token);
+    Optional<ActiveSessions> findByTokenHash(String tokenHash);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ActiveSessions s WHERE s.tokenHash = :tokenHash")
+    int deleteByTokenHash(@Param("tokenHash") String tokenHash);
+
+    // One batch of the expired-session purge, a short transaction of its own
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM active_sessions WHERE expires_at < :cutoff LIMIT :limit", nativeQuery = true)
+    int deleteExpiredBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
 }
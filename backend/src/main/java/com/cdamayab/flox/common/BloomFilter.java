@@ -0,0 +1,97 @@
+package com.cdamayab.flox.common;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Fixed-size, thread-safe Bloom filter of strings: {@link #mightContain(String)} never misses a
+ * value that was added, and wrongly reports a value that was not added with about the false
+ * positive rate it was sized for, as long as no more values than expected are added.
+ *
+ * Lookups are lock-free and do not allocate, so they fit on a per-request path; callers needing
+ * an exact answer check their own exact set only when the filter reports a value.
+ */
+public class BloomFilter {
+
+    /** Positions are taken from 32 hash bits. */
+    private static final long MAX_BITS = 1L << 32;
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+
+    /**
+     * Creates an empty filter.
+     *
+     * @param expectedInsertions number of values the filter is sized for
+     * @param falsePositiveRate  false positive rate at that number of values, between 0 and 1 exclusive
+     */
+    public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Expected insertions must be greater than zero.");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1.");
+        }
+        long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        if (optimalBits > MAX_BITS) {
+            throw new IllegalArgumentException("Bloom filter would need more than " + MAX_BITS + " bits.");
+        }
+        this.words = new AtomicLongArray((int) Math.max(1, (optimalBits + 63) / 64));
+        this.bits = words.length() * 64L;
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * Math.log(2)));
+    }
+
+    /**
+     * @param value the value to add
+     */
+    public void add(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashes; i++) {
+            long bit = index(h1 + i * h2);
+            long mask = 1L << bit;
+            int word = (int) (bit >>> 6);
+            long current;
+            do {
+                current = words.get(word);
+            } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    /**
+     * @param value the value to look up
+     * @return false if the value was never added, true if it probably was
+     */
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashes; i++) {
+            long bit = index(h1 + i * h2);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long index(int combined) {
+        // Maps the 32 hash bits to [0, bits) with a multiplication instead of a division
+        return ((combined & 0xffffffffL) * bits) >>> 32;
+    }
+
+    /**
+     * Spreads the 32-bit {@link String#hashCode()}, which a String caches, to 64 bits with the
+     * MurmurHash3 finalizer, so a repeated lookup of the same String only costs the probes.
+     */
+    private static long hash(String value) {
+        long hash = value.hashCode() * 0x9e3779b97f4a7c15L;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,191 @@
+package com.cdamayab.flox.common;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Small in-process cache bounded by size (least recently used entries are evicted first)
+ * and by time to live. Keeps hit, miss and eviction counters for monitoring.
+ *
+ * Writers that change the backing data must call {@link #invalidate(Object)} or
+ * {@link #invalidateAll()}; a value loaded concurrently with an invalidation of its key is never
+ * stored, so a read can not put back data that was overwritten or deleted while it was loading.
+ * Invalidations are tracked per key, only for the keys being loaded, so writes to other keys do
+ * not discard the loads in flight.
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the cached values
+ */
+public class BoundedCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<K, Entry<V>> entries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /** Keys being loaded, with a stamp incremented when the key is invalidated or written meanwhile. */
+    private final Map<K, Loads> loading = new HashMap<>();
+
+    /** Incremented by {@link #invalidateAll()}, which discards every load in flight. */
+    private long generation;
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxSize maximum number of entries kept in memory
+     * @param ttl     time an entry stays valid after being stored
+     */
+    public BoundedCache(int maxSize, Duration ttl) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be greater than zero.");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns the cached value for a key, or null if it is missing or expired.
+     *
+     * @param key the key to look up
+     * @return the cached value, or null
+     */
+    public synchronized V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            entries.remove(key);
+            evictions.increment();
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Returns the cached value for a key, loading and storing it on a miss.
+     * The loader runs outside the cache lock; its result is discarded if the key was
+     * invalidated or written while it was running. Exceptions thrown by the loader are propagated.
+     *
+     * @param key    the key to look up
+     * @param loader function that loads the value from the backing store
+     * @return the cached or freshly loaded value
+     */
+    public V get(K key, Function<K, V> loader) {
+        Loads loads;
+        long loadStamp;
+        long loadGeneration;
+        synchronized (this) {
+            V cached = get(key);
+            if (cached != null) {
+                return cached;
+            }
+            loads = loading.computeIfAbsent(key, k -> new Loads());
+            loads.loaders++;
+            loadStamp = loads.stamp;
+            loadGeneration = generation;
+        }
+        V loaded = null;
+        try {
+            loaded = loader.apply(key);
+        } finally {
+            finishLoad(key, loads, loaded, loadStamp, loadGeneration);
+        }
+        return loaded;
+    }
+
+    /**
+     * Stores a value, evicting the least recently used entry if the cache is full.
+     *
+     * @param key   the key
+     * @param value the value to store
+     */
+    public synchronized void put(K key, V value) {
+        touch(key);
+        entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+        evictOverflow();
+    }
+
+    /**
+     * Removes the entry for a key.
+     *
+     * @param key the key to remove
+     */
+    public synchronized void invalidate(K key) {
+        touch(key);
+        entries.remove(key);
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public synchronized void invalidateAll() {
+        generation++;
+        entries.clear();
+    }
+
+    /**
+     * @return current number of entries, including expired ones not yet evicted
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return a snapshot of the cache counters
+     */
+    public CacheStats stats() {
+        return new CacheStats(size(), maxSize, hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private synchronized void finishLoad(K key, Loads loads, V loaded, long loadStamp, long loadGeneration) {
+        boolean unchanged = loads.stamp == loadStamp && generation == loadGeneration;
+        if (--loads.loaders == 0) {
+            loading.remove(key, loads);
+        }
+        if (loaded != null && unchanged) {
+            entries.put(key, new Entry<>(loaded, System.nanoTime() + ttlNanos));
+            evictOverflow();
+        }
+    }
+
+    private void touch(K key) {
+        Loads loads = loading.get(key);
+        if (loads != null) {
+            loads.stamp++;
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (entries.size() > maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    /** Loads in flight for one key. */
+    private static final class Loads {
+        int loaders;
+        long stamp;
+    }
+
+    private record Entry<V>(V value, long expiresAtNanos) {
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.cdamayab.flox.common;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Outcome of a set-based operation executed as a single statement.
+ *
+ * @param affectedRows number of rows the statement changed
+ */
+@Schema(description = "Result of a bulk operation")
+public record BulkOperationResult(
+        @Schema(description = "Number of rows affected by the operation", example = "120") int affectedRows) {
+}
@@ -0,0 +1,23 @@
+package com.cdamayab.flox.common;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Snapshot of the counters of a {@link BoundedCache}.
+ */
+@Schema(description = "Usage counters of an in-memory cache")
+public record CacheStats(
+        @Schema(description = "Current number of entries", example = "120") int size,
+        @Schema(description = "Maximum number of entries", example = "10000") int maxSize,
+        @Schema(description = "Lookups served from the cache", example = "9500") long hits,
+        @Schema(description = "Lookups that went to the backing store", example = "500") long misses,
+        @Schema(description = "Entries removed by size or TTL eviction", example = "12") long evictions) {
+
+    /**
+     * @return fraction of lookups served from the cache, between 0 and 1
+     */
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+}
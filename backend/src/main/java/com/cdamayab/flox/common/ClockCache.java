@@ -0,0 +1,163 @@
+package com.cdamayab.flox.common;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process cache bounded by size and by time to live, for lookups on the hot path of every request.
+ * Keeps hit, miss and eviction counters for monitoring.
+ *
+ * Unlike {@link BoundedCache}, reads take no lock: entries live in a {@link ConcurrentHashMap} and a
+ * hit only sets the reference bit of its entry. When an insert takes the cache over its size, a clock
+ * hand sweeps the entries, clearing the reference bits it finds set and evicting the first entry whose
+ * bit is clear, which approximates evicting the least recently used entry. One thread sweeps at a time;
+ * inserts made meanwhile may leave the cache briefly above its size until the next sweep.
+ *
+ * @param <K> type of the keys
+ * @param <V> type of the cached values
+ */
+public class ClockCache<K, V> {
+
+    private final int maxSize;
+    private final long ttlNanos;
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private final ReentrantLock evictionLock = new ReentrantLock();
+    // Guarded by evictionLock
+    private Iterator<Map.Entry<K, Entry<V>>> hand;
+
+    /**
+     * Creates a cache.
+     *
+     * @param maxSize maximum number of entries kept in memory
+     * @param ttl     time an entry stays valid after being stored
+     */
+    public ClockCache(int maxSize, Duration ttl) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be greater than zero.");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Returns the cached value for a key, or null if it is missing or expired.
+     *
+     * @param key the key to look up
+     * @return the cached value, or null
+     */
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.isExpired(System.nanoTime())) {
+            if (entries.remove(key, entry)) {
+                evictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+        // Only written when clear, so hits on a hot entry do not keep invalidating its cache line
+        if (!entry.referenced) {
+            entry.referenced = true;
+        }
+        hits.increment();
+        return entry.value;
+    }
+
+    /**
+     * Stores a value, evicting entries if the cache is full.
+     *
+     * @param key   the key
+     * @param value the value to store
+     */
+    public void put(K key, V value) {
+        entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+        if (entries.size() > maxSize) {
+            evictOverflow();
+        }
+    }
+
+    /**
+     * Removes the entry for a key.
+     *
+     * @param key the key to remove
+     */
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Removes every entry.
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    /**
+     * @return current number of entries, including expired ones not yet evicted
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return a snapshot of the cache counters
+     */
+    public CacheStats stats() {
+        return new CacheStats(size(), maxSize, hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private void evictOverflow() {
+        if (!evictionLock.tryLock()) {
+            // Another insert is sweeping and will bring the size back down
+            return;
+        }
+        try {
+            long now = System.nanoTime();
+            while (entries.size() > maxSize) {
+                if (hand == null || !hand.hasNext()) {
+                    hand = entries.entrySet().iterator();
+                    if (!hand.hasNext()) {
+                        return;
+                    }
+                }
+                Map.Entry<K, Entry<V>> candidate = hand.next();
+                Entry<V> entry = candidate.getValue();
+                if (entry.referenced && !entry.isExpired(now)) {
+                    // Used since the hand last passed: give it another round
+                    entry.referenced = false;
+                } else if (entries.remove(candidate.getKey(), entry)) {
+                    evictions.increment();
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    private static final class Entry<V> {
+        final V value;
+        final long expiresAtNanos;
+        volatile boolean referenced;
+
+        Entry(V value, long expiresAtNanos) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
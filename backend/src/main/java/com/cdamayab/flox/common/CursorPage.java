@@ -0,0 +1,35 @@
+package com.cdamayab.flox.common;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset (cursor) paginated listing.
+ *
+ * @param <T> type of the items in the page
+ */
+@Schema(description = "A page of results together with the cursor to request the next one")
+public record CursorPage<T>(
+        @Schema(description = "Items of the current page") List<T> items,
+        @Schema(description = "Opaque cursor for the next page, null when this is the last page", example = "MTUwMDAwMC4wOjE") String nextCursor) {
+
+    /**
+     * Builds a page from a query that fetched up to {@code size + 1} rows: the extra row only
+     * signals that there is a next page and is dropped from the result.
+     *
+     * @param rows       rows returned by the seek query, at most {@code size + 1}
+     * @param size       requested page size
+     * @param cursorOf   function that encodes the cursor pointing after a given row
+     * @param <T>        type of the rows
+     * @return the page, with a next cursor only if more rows exist
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, String> cursorOf) {
+        if (rows.size() <= size) {
+            return new CursorPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, size);
+        return new CursorPage<>(items, cursorOf.apply(items.get(size - 1)));
+    }
+}
@@ -0,0 +1,63 @@
+package com.cdamayab.flox.common;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Helpers for entity tags (ETags) and conditional requests.
+ */
+public final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    /**
+     * @param version version of an entity
+     * @return strong ETag of that version
+     */
+    public static String of(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Read the version an {@code If-Match} header requires.
+     *
+     * @param ifMatch value of the header, or null when absent
+     * @return the required version, or null when any version is accepted (no header or {@code *})
+     * @throws PreconditionFailedException If the header is not a single strong ETag of a version.
+     */
+    public static Long requiredVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.valueOf(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // Not one of our tags, so it can not match
+            }
+        }
+        throw new PreconditionFailedException("If-Match does not match the current version: " + ifMatch);
+    }
+
+    /**
+     * Answer a conditional GET. When {@code If-None-Match} matches the ETag the body is not
+     * built at all and a 304 is returned; otherwise the body is built and returned with the ETag.
+     *
+     * @param request current request
+     * @param eTag    ETag of the current representation
+     * @param body    builds the body, only called when the client copy is stale
+     * @return 304 or 200 response carrying the ETag
+     */
+    public static <T> ResponseEntity<T> conditionalGet(WebRequest request, String eTag, Supplier<T> body) {
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.ok().eTag(eTag).cacheControl(CacheControl.noCache()).body(body.get());
+    }
+}
@@ -1,6 +1,8 @@
 package com.cdamayab.flox.common;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -49,6 +51,76 @@ public class GlobalExceptionHandler {
                         + ex.getMessage());
     }
 
+    /**
+     * Handles lookups of products or orders that do not exist.
+     *
+     * @param ex the exception to handle
+     * @return a ResponseEntity containing the error message and a 404 HTTP status
+     */
+    @ExceptionHandler({ProductNotFoundException.class, OrderNotFoundException.class})
+    public ResponseEntity<String> handleNotFoundException(RuntimeException ex) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
+    }
+
+    /**
+     * Handles stock reservations that would take a product's stock below zero,
+     * order status changes the order lifecycle does not allow, and changes to archived orders.
+     *
+     * @param ex the exception to handle
+     * @return a ResponseEntity containing the error message and a 409 HTTP status
+     */
+    @ExceptionHandler({InsufficientStockException.class, InvalidStatusTransitionException.class, OrderArchivedException.class})
+    public ResponseEntity<String> handleConflictException(RuntimeException ex) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ex.getMessage());
+    }
+
+    /**
+     * Handles updates whose If-Match header does not match the current version,
+     * or that lost an optimistic-locking race with a concurrent update.
+     *
+     * @param ex the exception to handle
+     * @return a ResponseEntity containing the error message and a 412 HTTP status
+     */
+    @ExceptionHandler({PreconditionFailedException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<String> handlePreconditionFailedException(RuntimeException ex) {
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(ex.getMessage());
+    }
+
+    /**
+     * Handles an Idempotency-Key reused with a different request.
+     *
+     * @param ex the exception to handle
+     * @return a ResponseEntity containing the error message and a 422 HTTP status
+     */
+    @ExceptionHandler(IdempotencyKeyReusedException.class)
+    public ResponseEntity<String> handleIdempotencyKeyReusedException(IdempotencyKeyReusedException ex) {
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(ex.getMessage());
+    }
+
+    /**
+     * Handles requests rejected because an ingestion queue is full.
+     *
+     * @param ex the exception to handle
+     * @return a ResponseEntity containing the error message and a 429 HTTP status asking the client to retry shortly
+     */
+    @ExceptionHandler(QueueFullException.class)
+    public ResponseEntity<String> handleQueueFullException(QueueFullException ex) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ex.getMessage());
+    }
+
+    /**
+     * Handles request arguments rejected by the services, such as a missing filter or an out of range size.
+     *
+     * @param ex the exception to handle
+     * @return a ResponseEntity containing the error message and a 400 HTTP status
+     */
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException ex) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
+    }
+
     /**
      * Generates a header string that provides information about the exception location.
      * This includes the class name, method name, and line number where the exception occurred.
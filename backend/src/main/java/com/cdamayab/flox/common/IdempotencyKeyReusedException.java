@@ -0,0 +1,7 @@
+package com.cdamayab.flox.common;
+
+public class IdempotencyKeyReusedException extends RuntimeException {
+    public IdempotencyKeyReusedException(String message) {
+        super(message);
+    }
+}
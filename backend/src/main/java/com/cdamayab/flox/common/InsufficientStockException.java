@@ -0,0 +1,7 @@
+package com.cdamayab.flox.common;
+
+public class InsufficientStockException extends RuntimeException {
+    public InsufficientStockException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.cdamayab.flox.common;
+
+public class InvalidStatusTransitionException extends RuntimeException {
+    public InvalidStatusTransitionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.cdamayab.flox.common;
+
+public class OrderArchivedException extends RuntimeException {
+    public OrderArchivedException(String message) {
+        super(message);
+    }
+}
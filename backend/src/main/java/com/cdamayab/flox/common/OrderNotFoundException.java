@@ -0,0 +1,7 @@
+package com.cdamayab.flox.common;
+
+public class OrderNotFoundException extends RuntimeException {
+    public OrderNotFoundException(String message) {
+        super(message);
+    }
+}
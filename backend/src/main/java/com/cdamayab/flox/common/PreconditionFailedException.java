@@ -0,0 +1,7 @@
+package com.cdamayab.flox.common;
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
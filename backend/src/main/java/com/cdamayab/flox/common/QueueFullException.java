@@ -0,0 +1,7 @@
+package com.cdamayab.flox.common;
+
+public class QueueFullException extends RuntimeException {
+    public QueueFullException(String message) {
+        super(message);
+    }
+}
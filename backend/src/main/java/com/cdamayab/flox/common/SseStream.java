@@ -0,0 +1,153 @@
+package com.cdamayab.flox.common;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One Server-Sent Events client with its own bounded queue of pending events.
+ *
+ * {@link #send(SseEmitter.SseEventBuilder)} only enqueues, so the thread producing the events (a
+ * request thread committing a write, or a relay thread) never waits on a client's socket. The queue
+ * is drained by a task on the given executor, at most one task per stream at a time, so events are
+ * sent in order. A client that falls more than {@code capacity} events behind is disconnected
+ * instead of buffering without bound; it reconnects and reads the current state again.
+ */
+public class SseStream {
+
+    private final SseEmitter emitter;
+    private final Executor executor;
+    private final int capacity;
+
+    // Guarded by this
+    private final Queue<SseEmitter.SseEventBuilder> pending = new ArrayDeque<>();
+    private boolean draining;
+    private volatile boolean open = true;
+
+    /**
+     * @param emitter  the emitter of the client
+     * @param executor the executor running the sends
+     * @param capacity maximum number of events waiting to be sent
+     */
+    public SseStream(SseEmitter emitter, Executor executor, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Stream capacity must be greater than zero.");
+        }
+        this.emitter = emitter;
+        this.executor = executor;
+        this.capacity = capacity;
+    }
+
+    /**
+     * Creates a pool of daemon threads to send the events of many streams. Each stream uses at most
+     * one thread at a time, so a client stuck on a full socket holds one thread and delays no other
+     * stream while threads are left. Idle threads are released.
+     *
+     * @param name    prefix of the thread names
+     * @param threads maximum number of streams sending at the same time
+     * @return the executor, to shut down with the owner
+     */
+    public static ExecutorService newSenderPool(String name, int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), task -> {
+            Thread thread = new Thread(task, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Queues an event for the client.
+     *
+     * @param event the event to send
+     * @return false if the stream is closed, or was just closed because the client is too far behind
+     */
+    public boolean send(SseEmitter.SseEventBuilder event) {
+        boolean overflow = false;
+        boolean startDrain = false;
+        synchronized (this) {
+            if (!open) {
+                return false;
+            }
+            if (pending.size() >= capacity) {
+                open = false;
+                pending.clear();
+                overflow = true;
+            } else {
+                pending.add(event);
+                startDrain = !draining;
+                draining = true;
+            }
+        }
+        if (overflow) {
+            emitter.complete();
+            return false;
+        }
+        if (startDrain) {
+            executor.execute(this::drain);
+        }
+        return true;
+    }
+
+    /**
+     * @return number of events waiting to be sent
+     */
+    public synchronized int backlog() {
+        return pending.size();
+    }
+
+    /**
+     * @return false once the client disconnected, a send failed or the client fell behind
+     */
+    public boolean isOpen() {
+        return open;
+    }
+
+    /**
+     * Closes the stream; pending events are dropped.
+     */
+    public void close() {
+        synchronized (this) {
+            open = false;
+            pending.clear();
+        }
+        emitter.complete();
+    }
+
+    public SseEmitter getEmitter() {
+        return emitter;
+    }
+
+    private void drain() {
+        while (true) {
+            SseEmitter.SseEventBuilder event;
+            synchronized (this) {
+                event = open ? pending.poll() : null;
+                if (event == null) {
+                    draining = false;
+                    return;
+                }
+            }
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                synchronized (this) {
+                    open = false;
+                    pending.clear();
+                    draining = false;
+                }
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.cdamayab.flox.common;
+
+import jakarta.persistence.*;
+
+/**
+ * One slot of the change counter of a table, see {@link TableChangeCounter}. The counter is split
+ * over a few rows so concurrent writers rarely wait for the same row lock.
+ */
+@Entity
+@Table(name = "table_changes", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_table_changes_table_slot", columnNames = {"table_name", "slot"})
+})
+public class TableChange {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "table_name", nullable = false, length = 64)
+    private String tableName;
+
+    @Column(nullable = false)
+    private int slot;
+
+    @Column(nullable = false)
+    private long changes;
+
+    // Getters
+    public Long getId()               { return id; }
+    public String getTableName()      { return tableName; }
+    public int getSlot()              { return slot; }
+    public long getChanges()          { return changes; }
+
+    // Setters
+    public void setId(Long id)                    { this.id = id; }
+    public void setTableName(String tableName)    { this.tableName = tableName; }
+    public void setSlot(int slot)                 { this.slot = slot; }
+    public void setChanges(long changes)          { this.changes = changes; }
+}
@@ -0,0 +1,62 @@
+package com.cdamayab.flox.common;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Counts the committed changes to a table, to build the ETag of the listings read from it.
+ *
+ * The count is kept in the {@code table_changes} table and incremented in the transaction that
+ * writes the data, so it commits with the change and every application instance derives the same
+ * ETag from it. The count is split over a few rows picked at random, and incremented once per
+ * transaction; the ETag is their sum. Writes made outside the service do not change the ETag.
+ */
+public class TableChangeCounter {
+
+    private static final int SLOTS = 16;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String table;
+
+    /**
+     * @param jdbcTemplate template of the database holding the table
+     * @param table        name of the counted table
+     */
+    public TableChangeCounter(JdbcTemplate jdbcTemplate, String table) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.table = table;
+    }
+
+    /**
+     * Record a change. Inside a transaction the count is incremented once, in that transaction;
+     * outside of one, call it after the change is written.
+     */
+    public void increment() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (TransactionSynchronizationManager.hasResource(this)) {
+                return;
+            }
+            TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(TableChangeCounter.this);
+                }
+            });
+        }
+        jdbcTemplate.update("INSERT INTO table_changes (table_name, slot, changes) VALUES (?, ?, 1) "
+                + "ON DUPLICATE KEY UPDATE changes = changes + 1", table, ThreadLocalRandom.current().nextInt(SLOTS));
+    }
+
+    /**
+     * @return strong ETag of the current state of the table
+     */
+    public String eTag() {
+        Long changes = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(changes), 0) FROM table_changes WHERE table_name = ?", Long.class, table);
+        return "\"" + table + "-" + changes + "\"";
+    }
+}
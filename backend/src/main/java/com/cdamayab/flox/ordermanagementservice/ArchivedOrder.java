@@ -0,0 +1,60 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * An order in a final status moved out of the orders table by {@link OrderArchiver}.
+ * Archived orders keep their ID and are read-only; they are returned as {@link Order}s.
+ */
+@Entity
+@Table(name = "orders_archive", indexes = {
+    @Index(name = "idx_orders_archive_customer_created_id", columnList = "customer_id, created_at, id")
+})
+public class ArchivedOrder {
+
+    @Id
+    private Long id;
+
+    private Long customerId;
+
+    private Double totalPrice;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    @Column(nullable = false)
+    private Long version;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+
+    /**
+     * @return a detached order with the archived values
+     */
+    public Order toOrder() {
+        Order order = new Order();
+        order.setId(id);
+        order.setCustomerId(customerId);
+        order.setTotalPrice(totalPrice);
+        order.setStatus(status);
+        order.setCreatedAt(createdAt);
+        order.setUpdatedAt(updatedAt);
+        order.setVersion(version);
+        return order;
+    }
+
+    // Getters
+    public Long getId()                   { return id; }
+    public Long getCustomerId()           { return customerId; }
+    public Double getTotalPrice()         { return totalPrice; }
+    public OrderStatus getStatus()        { return status; }
+    public LocalDateTime getCreatedAt()   { return createdAt; }
+    public LocalDateTime getUpdatedAt()   { return updatedAt; }
+    public Long getVersion()              { return version; }
+    public LocalDateTime getArchivedAt()  { return archivedAt; }
+}
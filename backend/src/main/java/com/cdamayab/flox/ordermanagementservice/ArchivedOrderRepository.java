@@ -0,0 +1,101 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for the archived orders.
+ */
+@Repository
+public interface ArchivedOrderRepository extends JpaRepository<ArchivedOrder, Long> {
+
+    /**
+     * Finds the archived orders of a customer, oldest first.
+     *
+     * @param customerId the ID of the customer
+     * @return the archived orders of the customer
+     */
+    List<ArchivedOrder> findByCustomerIdOrderByCreatedAtAscIdAsc(Long customerId);
+
+    /**
+     * Finds the latest archived orders of a customer, newest first.
+     *
+     * @param customerId the ID of the customer
+     * @param limit      maximum number of orders to return
+     * @return the archived orders of the customer
+     */
+    List<ArchivedOrder> findByCustomerIdAndCreatedAtNotNullOrderByCreatedAtDescIdDesc(Long customerId, Limit limit);
+
+    /**
+     * Finds the archived orders of a customer older than a position, newest first.
+     *
+     * @param customerId the ID of the customer
+     * @param createdAt  creation time of the position
+     * @param id         ID of the position, breaks ties between equal creation times
+     * @param limit      maximum number of orders to return
+     * @return the archived orders of the customer after the position
+     */
+    @Query("SELECT o FROM ArchivedOrder o WHERE o.customerId = :customerId "
+            + "AND o.createdAt <= :createdAt AND (o.createdAt < :createdAt OR o.id < :id) "
+            + "ORDER BY o.createdAt DESC, o.id DESC")
+    List<ArchivedOrder> findCustomerPageBefore(@Param("customerId") Long customerId, @Param("createdAt") LocalDateTime createdAt,
+            @Param("id") Long id, Limit limit);
+
+    /**
+     * Counts the orders of a customer, sums their total prices and finds the latest one, with one statement.
+     *
+     * @param customerId the ID of the customer
+     * @return the totals of the customer
+     */
+    @Query("SELECT new com.cdamayab.flox.ordermanagementservice.CustomerOrderTotals(COUNT(o), SUM(o.totalPrice), MAX(o.createdAt)) "
+            + "FROM ArchivedOrder o WHERE o.customerId = :customerId")
+    CustomerOrderTotals findCustomerTotals(@Param("customerId") Long customerId);
+
+    /**
+     * Copies orders from the orders table into the archive with a single statement.
+     *
+     * @param ids        the IDs of the orders to copy
+     * @param archivedAt the archival timestamp
+     * @return the number of archived orders
+     */
+    @Modifying
+    @Query(value = "INSERT INTO orders_archive (id, customer_id, total_price, status, created_at, updated_at, version, archived_at) "
+            + "SELECT id, customer_id, total_price, status, created_at, updated_at, version, :archivedAt FROM orders WHERE id IN (:ids)",
+            nativeQuery = true)
+    int copyFromOrders(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    /**
+     * Counts the archived orders and sums their total prices per status.
+     *
+     * @return rows of (status, count, revenue)
+     */
+    @Query("SELECT o.status, COUNT(o), COALESCE(SUM(o.totalPrice), 0) FROM ArchivedOrder o "
+            + "WHERE o.status IS NOT NULL GROUP BY o.status")
+    List<Object[]> sumByStatus();
+
+    /**
+     * Counts the archived orders and sums their total prices per customer.
+     *
+     * @return rows of (customer ID, count, revenue)
+     */
+    @Query("SELECT o.customerId, COUNT(o), COALESCE(SUM(o.totalPrice), 0) FROM ArchivedOrder o "
+            + "WHERE o.customerId IS NOT NULL GROUP BY o.customerId")
+    List<Object[]> sumByCustomer();
+
+    /**
+     * Counts the archived orders and sums their total prices per creation day.
+     *
+     * @return rows of (day, count, revenue)
+     */
+    @Query("SELECT cast(o.createdAt as LocalDate), COUNT(o), COALESCE(SUM(o.totalPrice), 0) FROM ArchivedOrder o "
+            + "WHERE o.createdAt IS NOT NULL GROUP BY cast(o.createdAt as LocalDate)")
+    List<Object[]> sumByDay();
+}
@@ -0,0 +1,19 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Summary and most recent orders of a customer, archived orders included.
+ */
+@Schema(description = "Order count, lifetime spend and most recent orders of a customer")
+public record CustomerOrderHistory(
+        @Schema(description = "Customer ID", example = "12345") Long customerId,
+        @Schema(description = "Number of orders the customer placed", example = "42") long orderCount,
+        @Schema(description = "Sum of the total prices of the customer's orders", example = "1250000.0") double lifetimeSpend,
+        @Schema(description = "Creation time of the customer's latest order, null without orders", example = "2024-12-10T13:25:22") LocalDateTime lastOrderAt,
+        @Schema(description = "Most recent orders, newest first") List<Order> recentOrders,
+        @Schema(description = "Cursor for the older orders at /api/orders/customer/{customerId}/history/page, null when there are none", example = "MjAyNC0xMi0xMFQxMzoyNToyMnwx") String nextCursor) {
+}
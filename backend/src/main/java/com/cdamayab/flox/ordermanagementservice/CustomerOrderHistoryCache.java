@@ -0,0 +1,70 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import com.cdamayab.flox.common.BoundedCache;
+import com.cdamayab.flox.common.CacheStats;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+/**
+ * Per-customer cache of the order history served to the customer portal: the summary and the most
+ * recent orders of each customer, computed on the first request and kept until an order of the
+ * customer is written. The cache is bounded, evicting the least recently used customers, and entries
+ * expire after a TTL as a safety net. Older orders are paged from SQL with the history cursor.
+ */
+@Component
+public class CustomerOrderHistoryCache {
+
+    @Autowired
+    private OrderManagementService orderManagementService;
+
+    @Value("${flox.orders.customer-history.recent-orders:20}")
+    private int recentOrders;
+
+    @Value("${flox.orders.customer-history.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    @Value("${flox.orders.customer-history.cache.ttl:PT10M}")
+    private Duration cacheTtl;
+
+    private BoundedCache<Long, CustomerOrderHistory> histories;
+
+    @PostConstruct
+    void init() {
+        histories = new BoundedCache<>(cacheMaxSize, cacheTtl);
+    }
+
+    /**
+     * @param customerId the ID of the customer
+     * @return the summary and most recent orders of the customer
+     */
+    public CustomerOrderHistory getHistory(Long customerId) {
+        return histories.get(customerId, id -> orderManagementService.computeCustomerOrderHistory(id, recentOrders));
+    }
+
+    /**
+     * @return hit, miss and eviction counters of the cache
+     */
+    public CacheStats getCacheStats() {
+        return histories.stats();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (event.before() != null && event.before().customerId() != null) {
+            histories.invalidate(event.before().customerId());
+        }
+        if (event.after() != null && event.after().customerId() != null) {
+            histories.invalidate(event.after().customerId());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrdersTransitioned(OrdersTransitionedEvent event) {
+        event.customerIds().forEach(histories::invalidate);
+    }
+}
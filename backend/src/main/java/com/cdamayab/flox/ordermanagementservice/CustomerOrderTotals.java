@@ -0,0 +1,13 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import java.time.LocalDateTime;
+
+/**
+ * Order count, spend and latest creation time of a customer in one table, read with one aggregate query.
+ *
+ * @param count       number of orders
+ * @param spend       sum of their total prices, null without orders
+ * @param lastOrderAt latest creation time, null without orders
+ */
+public record CustomerOrderTotals(Long count, Double spend, LocalDateTime lastOrderAt) {
+}
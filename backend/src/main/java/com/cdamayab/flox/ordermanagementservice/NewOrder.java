@@ -0,0 +1,21 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * An order to place from its items. Prices and total are computed by the server.
+ */
+@Schema(description = "Order to place: the customer and the products with their quantities")
+public record NewOrder(
+        @Schema(description = "ID of the customer placing the order", example = "12345") Long customerId,
+        @Schema(description = "Status of the order, PENDING when omitted", example = "PENDING") OrderStatus status,
+        @Schema(description = "Ordered products") List<Item> items) {
+
+    @Schema(description = "Product and quantity to order")
+    public record Item(
+            @Schema(description = "ID of the product", example = "4") Long productId,
+            @Schema(description = "Quantity to order", example = "2") Float quantity) {
+    }
+}
@@ -1,12 +1,18 @@
 package com.cdamayab.flox.ordermanagementservice;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
 @Schema(description = "Represents an order in the system")
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+    // Filters by customer or status, and keyset pagination on (created_at, id) after them
+    @Index(name = "idx_orders_customer_created_id", columnList = "customer_id, created_at, id"),
+    @Index(name = "idx_orders_status_created_id",   columnList = "status, created_at, id"),
+    @Index(name = "idx_orders_created_id",          columnList = "created_at, id")
+})
 public class Order {
 
     @Id
@@ -20,8 +26,9 @@ public class Order {
     @Schema(description = "Total price of the order", example = "350000.00")
     private Double totalPrice;
 
+    @Enumerated(EnumType.STRING)
     @Schema(description = "Status of the order", example = "PENDING")
-    private String status;
+    private OrderStatus status;
 
     @Schema(description = "Timestamp when the order was created", example = "2024-12-10T10:00:00")
     private LocalDateTime createdAt;
@@ -29,19 +36,27 @@ public class Order {
     @Schema(description = "Timestamp when the order was last updated", example = "2024-12-10T12:00:00")
     private LocalDateTime updatedAt;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0 not null")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Schema(description = "Version of the order, incremented on every change and exposed as its ETag", example = "2", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
+
     // Getters
     public Long getId()                   { return id; }
     public Long getCustomerId()           { return customerId; }
     public Double getTotalPrice()         { return totalPrice; }
-    public String getStatus()             { return status; }
+    public OrderStatus getStatus()        { return status; }
     public LocalDateTime getCreatedAt()   { return createdAt; }
     public LocalDateTime getUpdatedAt()   { return updatedAt; }
+    public Long getVersion()              { return version; }
 
     // Setters
     public void setId(Long id)                        { this.id = id; }
     public void setCustomerId(Long customerId)        { this.customerId = customerId; }
     public void setTotalPrice(Double totalPrice)      { this.totalPrice = totalPrice; }
-    public void setStatus(String status)             { this.status = status; }
+    public void setStatus(OrderStatus status)         { this.status = status; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+    public void setVersion(Long version)              { this.version = version; }
 }
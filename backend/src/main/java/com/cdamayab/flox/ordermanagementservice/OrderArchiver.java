@@ -0,0 +1,84 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Background job moving old orders in a final status (COMPLETED, CANCELLED) from the orders table
+ * to the archive, so the orders table keeps a stable working-set size instead of growing forever.
+ *
+ * Each run archives in small batches, one short transaction per batch, and pauses between batches
+ * so the job never holds many locks or competes for long with the order traffic. Reads by ID and
+ * by customer fall back to the archive, see {@link OrderManagementService#getOrderById(Long)}.
+ */
+@Component
+public class OrderArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderArchiver.class);
+
+    @Autowired
+    private OrderManagementService orderManagementService;
+
+    @Value("${flox.orders.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${flox.orders.archive.min-age:P90D}")
+    private Duration minAge;
+
+    @Value("${flox.orders.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${flox.orders.archive.pause:PT0.2S}")
+    private Duration pause;
+
+    private volatile boolean stopping;
+
+    /**
+     * Archives every order old enough, batch by batch, until none is left or the application stops.
+     */
+    @Scheduled(fixedDelayString = "${flox.orders.archive.interval:PT1H}",
+            initialDelayString = "${flox.orders.archive.interval:PT1H}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime cutoff = LocalDateTime.now().minus(minAge);
+        long started = System.nanoTime();
+        long total = 0;
+        while (!stopping) {
+            int archived;
+            try {
+                archived = orderManagementService.archiveOrders(cutoff, batchSize);
+            } catch (RuntimeException e) {
+                log.warn("Order archival stopped after {} orders", total, e);
+                break;
+            }
+            total += archived;
+            if (archived < batchSize) {
+                break;
+            }
+            try {
+                Thread.sleep(pause.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (total > 0) {
+            log.info("Archived {} orders created before {} in {} ms", total, cutoff, (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopping = true;
+    }
+}
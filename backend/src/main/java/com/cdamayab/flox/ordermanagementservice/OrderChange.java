@@ -0,0 +1,25 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+/**
+ * An entry of the order change feed, sent over {@code /api/orders/changes/stream}.
+ */
+@Schema(description = "A change of an order, with the order as it was after the change (before it, for deletions)")
+public record OrderChange(
+        @Schema(description = "Position of the change in the feed, sent as the event ID to resume from", example = "1024") long eventId,
+        @Schema(description = "Kind of change", example = "UPDATED") Type type,
+        @Schema(description = "ID of the order", example = "1") Long orderId,
+        @Schema(description = "ID of the customer of the order", example = "12345") Long customerId,
+        @Schema(description = "Total price of the order", example = "350000.00") Double totalPrice,
+        @Schema(description = "Status of the order", example = "PAID") OrderStatus status,
+        @Schema(description = "When the change was committed", example = "2024-12-10T12:00:00") LocalDateTime occurredAt) {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+}
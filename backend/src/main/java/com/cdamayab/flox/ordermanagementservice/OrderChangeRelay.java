@@ -0,0 +1,335 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import com.cdamayab.flox.common.QueueFullException;
+import com.cdamayab.flox.common.SseStream;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Relays the order change outbox to the Server-Sent Events subscribers of {@code /api/orders/changes/stream}.
+ *
+ * Order writes insert their changes in the {@code order_outbox} table in their own transaction.
+ * A single relay thread gives the new rows their position in the feed, reads the rows past the last
+ * position it delivered and queues them for every subscriber. The thread is woken right after an order
+ * commit, and polls at a fixed interval to pick up the changes committed by other instances. Each
+ * subscriber has its own bounded queue, drained by a small pool of sender threads, so a slow client
+ * neither delays the others nor the relay.
+ *
+ * The latest changes are kept in a ring buffer, so a client resuming with its last event ID is served
+ * from memory; older positions are read from the outbox, which keeps published changes for a retention
+ * period, by a bounded pool of replay threads. A client resuming from a position that is no longer kept
+ * gets a {@code reset} event instead, and then the changes from the buffer on.
+ */
+@Component
+public class OrderChangeRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderChangeRelay.class);
+
+    @Autowired
+    private OrderManagementService orderManagementService;
+
+    @Value("${flox.orders.changes.poll-interval:PT1S}")
+    private Duration pollInterval;
+
+    @Value("${flox.orders.changes.batch-size:500}")
+    private int batchSize;
+
+    @Value("${flox.orders.changes.buffer-size:10000}")
+    private int bufferSize;
+
+    @Value("${flox.orders.changes.retention:P7D}")
+    private Duration retention;
+
+    @Value("${flox.orders.changes.stream-timeout:PT30M}")
+    private Duration streamTimeout;
+
+    @Value("${flox.orders.changes.stream-senders:4}")
+    private int streamSenders;
+
+    @Value("${flox.orders.changes.stream-capacity:10000}")
+    private int streamCapacity;
+
+    @Value("${flox.orders.changes.replay-threads:2}")
+    private int replayThreads;
+
+    @Value("${flox.orders.changes.replay-queue:16}")
+    private int replayQueue;
+
+    // Guarded by this
+    private OrderChange[] buffer;
+    private long bufferedFrom;
+    private long lastPosition;
+
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private Thread relay;
+    private volatile boolean running;
+    private ExecutorService senders;
+    private ExecutorService replays;
+
+    @PostConstruct
+    void start() {
+        senders = SseStream.newSenderPool("order-change-stream", streamSenders);
+        AtomicInteger replayCounter = new AtomicInteger();
+        ThreadPoolExecutor replayPool = new ThreadPoolExecutor(replayThreads, replayThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(replayQueue), task -> {
+                    Thread thread = new Thread(task, "order-change-replay-" + replayCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        replayPool.allowCoreThreadTimeOut(true);
+        replays = replayPool;
+        buffer = new OrderChange[bufferSize];
+        lastPosition = orderManagementService.getLatestOrderChangePosition();
+        bufferedFrom = lastPosition + 1;
+        running = true;
+        relay = new Thread(this::run, "order-change-relay");
+        relay.setDaemon(true);
+        relay.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        LockSupport.unpark(relay);
+        subscribers.forEach(subscriber -> subscriber.stream.close());
+        replays.shutdownNow();
+        senders.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        LockSupport.unpark(relay);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrdersTransitioned(OrdersTransitionedEvent event) {
+        LockSupport.unpark(relay);
+    }
+
+    /**
+     * Open a Server-Sent Events stream of order changes. Each event carries its feed position as
+     * its ID; a client resuming with the last ID it saw first gets the changes it missed, or a
+     * {@code reset} event when they are no longer kept.
+     *
+     * @param lastEventId the last position the client saw, or null to only get new changes
+     * @return the emitter the changes are sent to
+     * @throws QueueFullException if too many clients are waiting for a replay from the outbox
+     */
+    public SseEmitter subscribe(Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        Subscriber subscriber = new Subscriber(new SseStream(emitter, senders, streamCapacity));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        // Registered before the replay; changes relayed meanwhile are held until it is done
+        subscribers.add(subscriber);
+
+        long after;
+        long firstBuffered;
+        List<OrderChange> buffered = new ArrayList<>();
+        synchronized (this) {
+            after = lastEventId == null ? lastPosition : Math.max(lastEventId, 0);
+            firstBuffered = Math.max(bufferedFrom, lastPosition - buffer.length + 1);
+            for (long position = Math.max(after + 1, firstBuffered); position <= lastPosition; position++) {
+                buffered.add(buffer[(int) (position % buffer.length)]);
+            }
+        }
+        if (after + 1 >= firstBuffered) {
+            buffered.forEach(subscriber::replay);
+            subscriber.goLive();
+        } else {
+            // Older than the buffer: read the gap from the outbox without holding the request thread
+            try {
+                replays.execute(() -> replay(subscriber, after, firstBuffered, buffered));
+            } catch (RejectedExecutionException e) {
+                subscribers.remove(subscriber);
+                throw new QueueFullException("Too many order change streams are resuming, retry later.");
+            }
+        }
+        return emitter;
+    }
+
+    /**
+     * Sends a subscriber the changes between its last position and the buffer, page by page as its
+     * queue empties, then the buffered changes, and lets it go live.
+     */
+    private void replay(Subscriber subscriber, long after, long firstBuffered, List<OrderChange> buffered) {
+        try {
+            long oldest = orderManagementService.getOldestOrderChangePosition();
+            if (oldest == 0 || after + 1 < oldest) {
+                subscriber.reset(after, firstBuffered - 1);
+            } else {
+                int pageSize = Math.max(1, Math.min(batchSize, streamCapacity / 2));
+                long position = after;
+                List<OrderChange> page;
+                do {
+                    subscriber.awaitBacklog(streamCapacity - pageSize);
+                    page = orderManagementService.getOrderChanges(position, firstBuffered, pageSize);
+                    page.forEach(subscriber::replay);
+                    if (!page.isEmpty()) {
+                        position = page.get(page.size() - 1).eventId();
+                    }
+                } while (page.size() == pageSize && subscriber.stream.isOpen() && running);
+            }
+            buffered.forEach(subscriber::replay);
+            subscriber.goLive();
+        } catch (RuntimeException e) {
+            log.warn("Replay of order changes after {} failed", after, e);
+            subscribers.remove(subscriber);
+            subscriber.stream.getEmitter().completeWithError(e);
+        }
+    }
+
+    /**
+     * Deletes the published changes older than the retention period, in batches.
+     */
+    @Scheduled(fixedDelayString = "${flox.orders.changes.purge-interval:PT1H}",
+            initialDelayString = "${flox.orders.changes.purge-interval:PT1H}")
+    public void purge() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        int purged;
+        do {
+            purged = orderManagementService.purgeOrderChanges(cutoff, batchSize);
+        } while (purged == batchSize && running);
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                while (orderManagementService.assignOrderChangePositions(batchSize) == batchSize && running) {
+                    // More rows waiting
+                }
+                List<OrderChange> changes;
+                do {
+                    changes = orderManagementService.getOrderChanges(lastPosition(), Long.MAX_VALUE, batchSize);
+                    deliver(changes);
+                } while (changes.size() == batchSize && running);
+            } catch (RuntimeException e) {
+                log.warn("Order change relay failed, retrying", e);
+            }
+            LockSupport.parkNanos(this, pollInterval.toNanos());
+        }
+    }
+
+    private synchronized long lastPosition() {
+        return lastPosition;
+    }
+
+    private void deliver(List<OrderChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+        synchronized (this) {
+            for (OrderChange change : changes) {
+                buffer[(int) (change.eventId() % buffer.length)] = change;
+                lastPosition = change.eventId();
+            }
+        }
+        for (Subscriber subscriber : subscribers) {
+            changes.forEach(subscriber::offer);
+        }
+    }
+
+    /**
+     * Sent instead of the missed changes when they are no longer kept: the client reloads the orders
+     * and applies the changes that follow.
+     *
+     * @param lastEventId  the position the client resumed from
+     * @param resumedAfter the position the stream continues after, the ID of the event
+     */
+    public record Reset(long lastEventId, long resumedAfter) {
+    }
+
+    /**
+     * A stream client. Until its replay is done, relayed changes are held, up to the capacity of the
+     * stream; changes at or below the last position sent are dropped, so the replay and the live
+     * changes can overlap.
+     */
+    private final class Subscriber {
+        final SseStream stream;
+        final List<OrderChange> held = new ArrayList<>();
+        long lastSent;
+        boolean live;
+
+        Subscriber(SseStream stream) {
+            this.stream = stream;
+        }
+
+        synchronized void offer(OrderChange change) {
+            if (live) {
+                send(change);
+            } else if (held.size() < streamCapacity) {
+                held.add(change);
+            } else {
+                held.clear();
+                subscribers.remove(this);
+                stream.close();
+            }
+        }
+
+        synchronized void replay(OrderChange change) {
+            send(change);
+        }
+
+        synchronized void reset(long lastEventId, long resumedAfter) {
+            if (stream.send(SseEmitter.event()
+                    .id(String.valueOf(resumedAfter))
+                    .name("reset")
+                    .data(new Reset(lastEventId, resumedAfter)))) {
+                lastSent = resumedAfter;
+            } else {
+                subscribers.remove(this);
+            }
+        }
+
+        synchronized void goLive() {
+            held.forEach(this::send);
+            held.clear();
+            live = true;
+        }
+
+        /**
+         * Waits until at most the given number of events are waiting to be sent to the client.
+         */
+        void awaitBacklog(int max) {
+            while (stream.isOpen() && stream.backlog() > max && running) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(10));
+            }
+        }
+
+        private void send(OrderChange change) {
+            if (change.eventId() <= lastSent) {
+                return;
+            }
+            if (stream.send(SseEmitter.event()
+                    .id(String.valueOf(change.eventId()))
+                    .name("order-change")
+                    .data(change))) {
+                lastSent = change.eventId();
+            } else {
+                subscribers.remove(this);
+            }
+        }
+    }
+}
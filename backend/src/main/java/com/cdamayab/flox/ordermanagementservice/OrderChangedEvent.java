@@ -0,0 +1,11 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+/**
+ * Published by {@link OrderManagementService} after an order is created, modified or deleted.
+ *
+ * @param before   the order before the change, null when it was created
+ * @param after    the order after the change, null when it was deleted
+ * @param changeId ID of the outbox row written with the change
+ */
+public record OrderChangedEvent(OrderSnapshot before, OrderSnapshot after, Long changeId) {
+}
@@ -0,0 +1,45 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position in an order listing ordered by (createdAt, id), encoded for clients as an opaque string.
+ *
+ * @param createdAt creation time of the last order returned
+ * @param id        ID of the last order returned, breaks ties between equal creation times
+ */
+record OrderCursor(LocalDateTime createdAt, long id) {
+
+    /**
+     * Cursor pointing right after the given order.
+     *
+     * @param order last order of a page
+     * @return the encoded cursor
+     */
+    static String after(Order order) {
+        String raw = order.getCreatedAt() + "|" + order.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor previously returned to a client.
+     *
+     * @param cursor encoded cursor, or null for the first page
+     * @return the decoded position, or null for the first page
+     * @throws IllegalArgumentException If the cursor is malformed.
+     */
+    static OrderCursor decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new OrderCursor(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * An order together with its items.
+ */
+@Schema(description = "Order together with its items")
+public record OrderDetails(
+        @Schema(description = "The order") Order order,
+        @Schema(description = "Items of the order") List<OrderItem> items) {
+}
@@ -0,0 +1,161 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import com.cdamayab.flox.common.BoundedCache;
+import com.cdamayab.flox.common.CacheStats;
+import com.cdamayab.flox.common.IdempotencyKeyReusedException;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Idempotent order creation for {@code POST /api/orders} with an {@code Idempotency-Key} header.
+ *
+ * A key is resolved in three steps, cheapest first:
+ * <ol>
+ *   <li>the bounded TTL cache of recently used keys, which answers retries without touching the database;</li>
+ *   <li>the request already creating the order for the key in this instance, if any: concurrent
+ *       duplicates wait for it and share its result instead of inserting;</li>
+ *   <li>the {@code order_idempotency_keys} table, whose unique index settles races between instances.</li>
+ * </ol>
+ * Each step yields the ID of the order created for the key and the hash of the request that created
+ * it. A repeated key with the same request returns the current state of that order, read by ID on
+ * every path; a repeated key with a different request is rejected.
+ */
+@Component
+public class OrderIdempotencyCache {
+
+    /** Longest accepted Idempotency-Key. */
+    public static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    private OrderManagementService orderManagementService;
+
+    @Value("${flox.orders.idempotency.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    @Value("${flox.orders.idempotency.cache.ttl:PT24H}")
+    private Duration cacheTtl;
+
+    private BoundedCache<String, KeyedOrder> keys;
+
+    private final ConcurrentMap<String, CompletableFuture<KeyedOrder>> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        keys = new BoundedCache<>(cacheMaxSize, cacheTtl);
+    }
+
+    /**
+     * Creates an order unless one was already created with the same key, in which case that order is returned.
+     *
+     * @param idempotencyKey the key sent by the client
+     * @param order          the order to create
+     * @return the order created for the key
+     * @throws IllegalArgumentException if the key is blank or too long
+     * @throws IdempotencyKeyReusedException if the key was used for a different request
+     */
+    public Order createOrder(String idempotencyKey, Order order) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must have between 1 and " + MAX_KEY_LENGTH + " characters.");
+        }
+        String requestHash = hash(order);
+        KeyedOrder cached = keys.get(idempotencyKey);
+        if (cached != null) {
+            return resolve(cached, requestHash);
+        }
+
+        CompletableFuture<KeyedOrder> mine = new CompletableFuture<>();
+        CompletableFuture<KeyedOrder> running = inFlight.putIfAbsent(idempotencyKey, mine);
+        if (running != null) {
+            try {
+                return resolve(running.join(), requestHash);
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            KeyedOrder existing = findKey(idempotencyKey);
+            if (existing == null) {
+                try {
+                    Order created = orderManagementService.createOrder(order, idempotencyKey, requestHash);
+                    publish(idempotencyKey, mine, new KeyedOrder(created.getId(), requestHash));
+                    return created;
+                } catch (DataIntegrityViolationException e) {
+                    // Another instance recorded the key first; its order is committed by now
+                    existing = findKey(idempotencyKey);
+                    if (existing == null) {
+                        throw e;
+                    }
+                }
+            }
+            publish(idempotencyKey, mine, existing);
+            return resolve(existing, requestHash);
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(idempotencyKey, mine);
+        }
+    }
+
+    /**
+     * @return hit and miss counters of the key cache
+     */
+    public CacheStats getCacheStats() {
+        return keys.stats();
+    }
+
+    private KeyedOrder findKey(String idempotencyKey) {
+        return orderManagementService.findIdempotencyKey(idempotencyKey)
+                .map(record -> new KeyedOrder(record.getOrderId(), record.getRequestHash()))
+                .orElse(null);
+    }
+
+    private void publish(String idempotencyKey, CompletableFuture<KeyedOrder> mine, KeyedOrder keyed) {
+        keys.put(idempotencyKey, keyed);
+        mine.complete(keyed);
+    }
+
+    /**
+     * Returns the current state of the order created for a key, if the request matches the one that created it.
+     */
+    private Order resolve(KeyedOrder keyed, String requestHash) {
+        if (keyed.requestHash() != null && !keyed.requestHash().equals(requestHash)) {
+            throw new IdempotencyKeyReusedException("Idempotency-Key was already used with a different request.");
+        }
+        return orderManagementService.getOrderById(keyed.orderId());
+    }
+
+    /**
+     * Hashes the fields of the request the client chooses; the service sets the others.
+     *
+     * @return the Base64 SHA-256 hash of the request
+     */
+    static String hash(Order order) {
+        String request = order.getCustomerId() + "|" + order.getTotalPrice() + "|" + order.getStatus();
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(request.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * What is kept for a key: the ID of its order, and the hash of the request that created it.
+     */
+    private record KeyedOrder(long orderId, String requestHash) {
+    }
+}
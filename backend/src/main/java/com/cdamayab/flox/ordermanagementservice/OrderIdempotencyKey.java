@@ -0,0 +1,47 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Records the order created for an Idempotency-Key, so a retried request returns that order
+ * instead of creating another one. The unique index makes a second insert of a key fail, even
+ * across application instances.
+ */
+@Entity
+@Table(name = "order_idempotency_keys", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_order_idempotency_keys_key", columnNames = "idempotency_key")
+})
+public class OrderIdempotencyKey {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = OrderIdempotencyCache.MAX_KEY_LENGTH)
+    private String idempotencyKey;
+
+    @Column(nullable = false)
+    private Long orderId;
+
+    /** Hash of the request that created the order; null for keys recorded before it was kept. */
+    @Column(length = 44)
+    private String requestHash;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    // Getters
+    public Long getId()                   { return id; }
+    public String getIdempotencyKey()     { return idempotencyKey; }
+    public Long getOrderId()              { return orderId; }
+    public String getRequestHash()        { return requestHash; }
+    public LocalDateTime getCreatedAt()   { return createdAt; }
+
+    // Setters
+    public void setId(Long id)                          { this.id = id; }
+    public void setIdempotencyKey(String idempotencyKey) { this.idempotencyKey = idempotencyKey; }
+    public void setOrderId(Long orderId)                { this.orderId = orderId; }
+    public void setRequestHash(String requestHash)      { this.requestHash = requestHash; }
+    public void setCreatedAt(LocalDateTime createdAt)   { this.createdAt = createdAt; }
+}
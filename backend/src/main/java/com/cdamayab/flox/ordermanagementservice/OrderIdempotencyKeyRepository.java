@@ -0,0 +1,21 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+/**
+ * Repository interface for the idempotency keys of order creation.
+ */
+@Repository
+public interface OrderIdempotencyKeyRepository extends JpaRepository<OrderIdempotencyKey, Long> {
+
+    /**
+     * Finds the record of an idempotency key, through its unique index.
+     *
+     * @param idempotencyKey the key sent by the client
+     * @return the record of the key, if an order was created with it
+     */
+    Optional<OrderIdempotencyKey> findByIdempotencyKey(String idempotencyKey);
+}
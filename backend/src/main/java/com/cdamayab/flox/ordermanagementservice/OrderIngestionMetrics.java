@@ -0,0 +1,20 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Counters of the asynchronous order ingestion mode.
+ */
+@Schema(description = "Queue depth and group-commit batch statistics of the asynchronous order ingestion")
+public record OrderIngestionMetrics(
+        @Schema(description = "Orders waiting in the queue", example = "120") int queueDepth,
+        @Schema(description = "Maximum number of orders the queue holds", example = "10000") int queueCapacity,
+        @Schema(description = "Orders accepted since startup", example = "250000") long accepted,
+        @Schema(description = "Orders rejected with 429 because the queue was full", example = "35") long rejected,
+        @Schema(description = "Orders committed", example = "249880") long created,
+        @Schema(description = "Orders that could not be written", example = "0") long failed,
+        @Schema(description = "Batches committed or failed", example = "812") long batches,
+        @Schema(description = "Average number of orders per batch", example = "307.6") double averageBatchSize,
+        @Schema(description = "Largest batch written", example = "500") int maxBatchSize,
+        @Schema(description = "Average time to write and commit a batch, in milliseconds", example = "11.4") double averageCommitMillis) {
+}
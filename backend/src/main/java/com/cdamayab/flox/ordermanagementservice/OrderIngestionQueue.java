@@ -0,0 +1,254 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import com.cdamayab.flox.common.BoundedCache;
+import com.cdamayab.flox.common.QueueFullException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Asynchronous order ingestion with group commit.
+ *
+ * Accepted orders are put in a bounded lock-free queue and the caller gets a tracking ID right away.
+ * A single writer thread drains the queue and creates the orders in batches, one transaction and one
+ * commit per batch, so the commit rate of the database no longer limits the order rate. A batch is
+ * written as soon as it is full, or when its oldest order has waited the maximum latency.
+ * When the queue is full new orders are rejected, so clients back off instead of piling up memory.
+ * When a batch fails its orders are written again one by one, so a bad order only fails itself.
+ */
+@Component
+public class OrderIngestionQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIngestionQueue.class);
+
+    @Autowired
+    private OrderManagementService orderManagementService;
+
+    @Value("${flox.orders.ingestion.capacity:10000}")
+    private int capacity;
+
+    @Value("${flox.orders.ingestion.batch-size:500}")
+    private int batchSize;
+
+    @Value("${flox.orders.ingestion.max-latency:PT0.05S}")
+    private Duration maxLatency;
+
+    @Value("${flox.orders.ingestion.status-ttl:PT1H}")
+    private Duration statusTtl;
+
+    private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+    private BoundedCache<String, OrderIngestionStatus> statuses;
+    private Thread writer;
+    private volatile boolean running;
+
+    // Submissions take the read lock, so they run concurrently; stopping takes the write lock, so once
+    // the writer sees the queue stopped no order can be added behind it
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchedOrders = new LongAdder();
+    private final LongAdder commitNanos = new LongAdder();
+    private final LongAccumulator maxBatch = new LongAccumulator(Math::max, 0);
+
+    @PostConstruct
+    void start() {
+        // Statuses of the queued orders must never be evicted, hence the room above the queue capacity
+        statuses = new BoundedCache<>(Math.max(capacity * 10, 10000), statusTtl);
+        running = true;
+        writer = new Thread(this::drain, "order-ingestion-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Stops accepting orders and writes the ones still queued before the application shuts down.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        lock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        LockSupport.unpark(writer);
+        writer.join(Duration.ofSeconds(30).toMillis());
+    }
+
+    /**
+     * Queue an order for creation.
+     *
+     * @param order the order to create
+     * @return the QUEUED status with the tracking ID
+     * @throws QueueFullException if the queue is full or shutting down
+     */
+    public OrderIngestionStatus submit(Order order) {
+        OrderIngestionStatus status;
+        lock.readLock().lock();
+        try {
+            if (!running) {
+                rejected.increment();
+                throw new QueueFullException("Order queue is shutting down, retry later.");
+            }
+            if (depth.incrementAndGet() > capacity) {
+                depth.decrementAndGet();
+                rejected.increment();
+                throw new QueueFullException("Order queue is full, retry later.");
+            }
+            order.setId(null);
+            order.setCreatedAt(LocalDateTime.now());
+            String trackingId = UUID.randomUUID().toString();
+            status = new OrderIngestionStatus(trackingId, OrderIngestionStatus.State.QUEUED, null, null);
+            statuses.put(trackingId, status);
+            queue.offer(new Pending(trackingId, order, System.nanoTime()));
+        } finally {
+            lock.readLock().unlock();
+        }
+        accepted.increment();
+        if (depth.get() >= batchSize) {
+            LockSupport.unpark(writer);
+        }
+        return status;
+    }
+
+    /**
+     * @param trackingId the ID returned when the order was accepted
+     * @return the status of the order, or null if the ID is unknown or expired
+     */
+    public OrderIngestionStatus getStatus(String trackingId) {
+        return statuses.get(trackingId);
+    }
+
+    /**
+     * @return current queue depth and batch statistics
+     */
+    public OrderIngestionMetrics getMetrics() {
+        long batchCount = batches.sum();
+        return new OrderIngestionMetrics(
+                depth.get(),
+                capacity,
+                accepted.sum(),
+                rejected.sum(),
+                created.sum(),
+                failed.sum(),
+                batchCount,
+                batchCount == 0 ? 0 : (double) batchedOrders.sum() / batchCount,
+                (int) maxBatch.get(),
+                batchCount == 0 ? 0 : commitNanos.sum() / 1e6 / batchCount);
+    }
+
+    private void drain() {
+        long maxLatencyNanos = maxLatency.toNanos();
+        while (running || !queue.isEmpty()) {
+            Pending oldest = queue.peek();
+            if (oldest == null) {
+                LockSupport.parkNanos(this, maxLatencyNanos);
+                continue;
+            }
+            long waitNanos = oldest.acceptedAt + maxLatencyNanos - System.nanoTime();
+            if (running && depth.get() < batchSize && waitNanos > 0) {
+                // Unparked early when a full batch is waiting
+                LockSupport.parkNanos(this, waitNanos);
+                continue;
+            }
+            List<Pending> batch = new ArrayList<>(batchSize);
+            Pending next;
+            while (batch.size() < batchSize && (next = queue.poll()) != null) {
+                batch.add(next);
+            }
+            depth.addAndGet(-batch.size());
+            write(batch);
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        List<Order> orders = new ArrayList<>(batch.size());
+        batch.forEach(pending -> orders.add(pending.order));
+        long startedAt = System.nanoTime();
+        try {
+            orderManagementService.createOrders(orders);
+            batch.forEach(this::created);
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                failed(batch.get(0), e);
+            } else {
+                log.warn("Could not write a batch of {} queued orders, writing them one by one", batch.size(), e);
+                for (Pending pending : batch) {
+                    writeOne(pending);
+                }
+            }
+        }
+        commitNanos.add(System.nanoTime() - startedAt);
+        batches.increment();
+        batchedOrders.add(batch.size());
+        maxBatch.accumulate(batch.size());
+    }
+
+    private void writeOne(Pending pending) {
+        // The failed batch may have assigned an ID before rolling back
+        pending.order.setId(null);
+        try {
+            orderManagementService.createOrders(List.of(pending.order));
+            created(pending);
+        } catch (RuntimeException e) {
+            failed(pending, e);
+        }
+    }
+
+    private void created(Pending pending) {
+        statuses.put(pending.trackingId, new OrderIngestionStatus(
+                pending.trackingId, OrderIngestionStatus.State.CREATED, pending.order.getId(), null));
+        created.increment();
+    }
+
+    private void failed(Pending pending, RuntimeException e) {
+        log.error("Could not write queued order {}", pending.trackingId, e);
+        statuses.put(pending.trackingId, new OrderIngestionStatus(
+                pending.trackingId, OrderIngestionStatus.State.FAILED, null, reason(e)));
+        failed.increment();
+    }
+
+    /**
+     * The failure reason shown to the client: the validation messages of the service, and a generic
+     * message for database errors, whose details stay in the log.
+     */
+    private static String reason(RuntimeException e) {
+        if (e instanceof IllegalArgumentException) {
+            return e.getMessage();
+        }
+        if (e instanceof DataIntegrityViolationException) {
+            return "The order is not valid for the database.";
+        }
+        if (e instanceof DataAccessException) {
+            return "The order could not be stored.";
+        }
+        return "The order could not be created.";
+    }
+
+    private record Pending(String trackingId, Order order, long acceptedAt) {
+    }
+}
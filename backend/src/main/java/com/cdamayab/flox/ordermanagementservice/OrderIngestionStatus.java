@@ -0,0 +1,16 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Progress of an order accepted by the asynchronous ingestion mode.
+ */
+@Schema(description = "Status of an order submitted for asynchronous creation")
+public record OrderIngestionStatus(
+        @Schema(description = "Tracking ID returned when the order was accepted", example = "4f1c2a9e-6d3b-4b8e-9a51-0f3c2d1e7b6a") String trackingId,
+        @Schema(description = "QUEUED while waiting to be written, CREATED once committed, FAILED if it could not be written", example = "CREATED") State state,
+        @Schema(description = "ID of the created order, once CREATED", example = "1") Long orderId,
+        @Schema(description = "Reason of the failure, when FAILED") String message) {
+
+    public enum State { QUEUED, CREATED, FAILED }
+}
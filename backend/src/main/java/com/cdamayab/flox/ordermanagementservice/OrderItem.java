@@ -0,0 +1,49 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.*;
+
+@Entity
+@Schema(description = "Represents a line of an order: a product, its quantity and its unit price when the order was placed")
+@Table(name = "order_items", indexes = {
+    @Index(name = "idx_order_items_order_id", columnList = "order_id")
+})
+public class OrderItem {
+
+    // Sequence IDs with a pooled allocation, so that Hibernate can batch the item inserts
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_items_seq")
+    @SequenceGenerator(name = "order_items_seq", sequenceName = "order_items_seq", allocationSize = 50)
+    @Schema(description = "Unique identifier for the order item", example = "1")
+    private Long id;
+
+    @Column(nullable = false)
+    @Schema(description = "ID of the order the item belongs to", example = "1")
+    private Long orderId;
+
+    @Column(nullable = false)
+    @Schema(description = "ID of the ordered product", example = "4")
+    private Long productId;
+
+    @Column(nullable = false)
+    @Schema(description = "Ordered quantity", example = "2")
+    private Float quantity;
+
+    @Column(nullable = false)
+    @Schema(description = "Price of one unit of the product when the order was placed", example = "175000.00")
+    private Float unitPrice;
+
+    // Getters
+    public Long getId()             { return id; }
+    public Long getOrderId()        { return orderId; }
+    public Long getProductId()      { return productId; }
+    public Float getQuantity()      { return quantity; }
+    public Float getUnitPrice()     { return unitPrice; }
+
+    // Setters
+    public void setId(Long id)                  { this.id = id; }
+    public void setOrderId(Long orderId)        { this.orderId = orderId; }
+    public void setProductId(Long productId)    { this.productId = productId; }
+    public void setQuantity(Float quantity)     { this.quantity = quantity; }
+    public void setUnitPrice(Float unitPrice)   { this.unitPrice = unitPrice; }
+}
@@ -0,0 +1,34 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Repository interface for managing OrderItem entities.
+ */
+@Repository
+public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    /**
+     * Finds the items of an order.
+     *
+     * @param orderId the ID of the order
+     * @return the items of the order, in insertion order
+     */
+    List<OrderItem> findByOrderIdOrderByIdAsc(Long orderId);
+
+    /**
+     * Deletes the items of an order with a single statement.
+     *
+     * @param orderId the ID of the order
+     * @return the number of deleted items
+     */
+    @Modifying
+    @Query("DELETE FROM OrderItem i WHERE i.orderId = :orderId")
+    int deleteAllByOrderId(@Param("orderId") Long orderId);
+}
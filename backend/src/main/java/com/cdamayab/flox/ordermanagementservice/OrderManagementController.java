@@ -1,14 +1,28 @@
 package com.cdamayab.flox.ordermanagementservice;
 
+import com.cdamayab.flox.common.CacheStats;
+import com.cdamayab.flox.common.CursorPage;
+import com.cdamayab.flox.common.EntityTags;
+import com.cdamayab.flox.common.OrderNotFoundException;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -18,66 +32,282 @@ public class OrderManagementController {
     @Autowired
     private OrderManagementService orderManagementService;
 
+    @Autowired
+    private OrderIngestionQueue orderIngestionQueue;
+
+    @Autowired
+    private OrderStatsStore orderStatsStore;
+
+    @Autowired
+    private OrderIdempotencyCache orderIdempotencyCache;
+
+    @Autowired
+    private OrderChangeRelay orderChangeRelay;
+
+    @Autowired
+    private CustomerOrderHistoryCache customerOrderHistoryCache;
+
     // CRUD
 
-    @Operation(summary = "Create a new order", description = "Add a new order to the platform")
-    @ApiResponse(responseCode = "201", description = "Order created successfully")
+    @Operation(summary = "Create a new order", description = "Add a new order to the platform. "
+            + "With an Idempotency-Key header, retries with the same key and body return the current state of the order created by the first request instead of creating another one")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "201", description = "Order created successfully"),
+            @ApiResponse(responseCode = "422", description = "The Idempotency-Key was already used with a different body", content = @Content)
+    })
     @PostMapping
     public Order createOrder(
+            @RequestBody @Schema(description = "Details of the order to create") Order order,
+            @RequestHeader(value = "Idempotency-Key", required = false) @Schema(description = "Unique key of the request, reused when retrying it", example = "3f1c9a52-8d0e-4b7a-9c61-2f5e0b8d7a44") String idempotencyKey) {
+        if (idempotencyKey == null) {
+            return orderManagementService.createOrder(order);
+        }
+        return orderIdempotencyCache.createOrder(idempotencyKey, order);
+    }
+
+    @Operation(summary = "Idempotency key cache statistics", description = "Fetch hit, miss and eviction counters of the cache answering repeated Idempotency-Keys.")
+    @ApiResponse(responseCode = "200", description = "Cache statistics retrieved successfully")
+    @GetMapping("/idempotency/cache/stats")
+    public CacheStats getIdempotencyCacheStats() {
+        return orderIdempotencyCache.getCacheStats();
+    }
+
+    @Operation(summary = "Submit an order for asynchronous creation", description = "Queue an order and return right away with a tracking ID. Queued orders are written in batches, one commit per batch")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Order accepted, see the Location header for its status"),
+            @ApiResponse(responseCode = "429", description = "Queue full, retry after the delay in Retry-After", content = @Content)
+    })
+    @PostMapping("/async")
+    public ResponseEntity<OrderIngestionStatus> submitOrder(
             @RequestBody @Schema(description = "Details of the order to create") Order order) {
-        return orderManagementService.createOrder(order);
+        OrderIngestionStatus status = orderIngestionQueue.submit(order);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/orders/async/" + status.trackingId()))
+                .body(status);
+    }
+
+    @Operation(summary = "Asynchronous ingestion metrics", description = "Fetch queue depth and group-commit batch statistics of the asynchronous order creation")
+    @ApiResponse(responseCode = "200", description = "Metrics retrieved successfully")
+    @GetMapping("/async/metrics")
+    public OrderIngestionMetrics getIngestionMetrics() {
+        return orderIngestionQueue.getMetrics();
+    }
+
+    @Operation(summary = "Status of an asynchronous order", description = "Fetch whether a submitted order is still queued, created or failed")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Status retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Unknown or expired tracking ID", content = @Content)
+    })
+    @GetMapping("/async/{trackingId}")
+    public OrderIngestionStatus getIngestionStatus(
+            @PathVariable @Schema(description = "Tracking ID returned when the order was submitted") String trackingId) {
+        OrderIngestionStatus status = orderIngestionQueue.getStatus(trackingId);
+        if (status == null) {
+            throw new OrderNotFoundException("No submitted order with tracking ID: " + trackingId);
+        }
+        return status;
     }
 
-    @Operation(summary = "Retrieve all orders", description = "Fetch a list of all orders in the platform")
+    @Operation(summary = "Place an order from its items", description = "Create an order from products and quantities. Unit prices are taken from the catalog and the total is computed by the server, in one transaction")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Order created successfully, with its items"),
+            @ApiResponse(responseCode = "404", description = "An ordered product was not found", content = @Content)
+    })
+    @PostMapping("/with-items")
+    public OrderDetails createOrderWithItems(
+            @RequestBody @Schema(description = "Customer and ordered products") NewOrder newOrder) {
+        return orderManagementService.createOrderWithItems(newOrder);
+    }
+
+    @Operation(summary = "Retrieve the most recent orders", description = "Fetch the most recent orders in the platform, newest first, up to a limit. Use /api/orders/query to page through all of them")
     @ApiResponse(responseCode = "200", description = "List of orders retrieved successfully")
     @GetMapping
-    public List<Order> getAllOrders() {
-        return orderManagementService.getAllOrders();
+    public ResponseEntity<List<Order>> getAllOrders(
+            @RequestParam(defaultValue = "" + OrderManagementService.DEFAULT_LIST_LIMIT) @Schema(description = "Maximum number of orders, up to 1000", example = "100") int limit,
+            WebRequest request) {
+        return EntityTags.conditionalGet(request, orderManagementService.getOrdersETag(),
+                () -> orderManagementService.getAllOrders(limit));
+    }
+
+    @Operation(summary = "Retrieve summaries of the most recent orders", description = "Fetch the ID, status and total price of the most recent orders, newest first. Lighter than the full listing: only those columns are read")
+    @ApiResponse(responseCode = "200", description = "List of order summaries retrieved successfully")
+    @GetMapping(params = "view=summary")
+    public ResponseEntity<List<OrderSummary>> getAllOrderSummaries(
+            @RequestParam(defaultValue = "" + OrderManagementService.DEFAULT_LIST_LIMIT) @Schema(description = "Maximum number of orders, up to 1000", example = "100") int limit,
+            WebRequest request) {
+        return EntityTags.conditionalGet(request, orderManagementService.getOrdersETag(),
+                () -> orderManagementService.getAllOrderSummaries(limit));
+    }
+
+    @Operation(summary = "Query orders", description = "Fetch one page of the orders matching any combination of status, customer and creation time window, "
+            + "ordered by creation time, using an opaque cursor returned by the previous page")
+    @ApiResponse(responseCode = "200", description = "Page of orders retrieved successfully")
+    @GetMapping("/query")
+    public ResponseEntity<CursorPage<Order>> queryOrders(
+            @RequestParam(required = false) @Schema(description = "Status of the orders", example = "PENDING") OrderStatus status,
+            @RequestParam(required = false) @Schema(description = "Customer ID associated with the orders", example = "12345") Long customerId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) @Schema(description = "Only orders created at or after this time", example = "2024-12-01T00:00:00") LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) @Schema(description = "Only orders created before this time", example = "2025-01-01T00:00:00") LocalDateTime to,
+            @RequestParam(defaultValue = "DESC") @Schema(description = "Sorting direction: ASC for oldest first or DESC for newest first", example = "DESC") String direction,
+            @RequestParam(defaultValue = "50") @Schema(description = "Maximum number of orders in the page", example = "50") int size,
+            @RequestParam(required = false) @Schema(description = "Cursor returned by the previous page, omitted for the first page") String cursor,
+            WebRequest request) {
+        OrderQuery query = new OrderQuery(status, customerId, from, to, Sort.Direction.fromString(direction));
+        return EntityTags.conditionalGet(request, orderManagementService.getOrdersETag(),
+                () -> orderManagementService.queryOrders(query, cursor, size));
+    }
+
+    @Operation(summary = "Stream order changes", description = "Server-Sent Events stream with an 'order-change' event each time an order is created, updated or deleted. "
+            + "The event ID is the position of the change; reconnecting with Last-Event-ID (or lastEventId) first sends the changes missed since then. "
+            + "When those changes are no longer kept, a 'reset' event is sent instead: reload the orders, then apply the changes that follow")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Change stream opened", content = @Content(mediaType = "text/event-stream")),
+            @ApiResponse(responseCode = "429", description = "Too many streams are resuming; retry after the Retry-After delay", content = @Content)
+    })
+    @GetMapping(value = "/changes/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrderChanges(
+            @RequestHeader(value = "Last-Event-ID", required = false) @Schema(description = "ID of the last event received, sent by EventSource when reconnecting", example = "1024") Long lastEventIdHeader,
+            @RequestParam(required = false) @Schema(description = "ID of the last event received, for the first connection of a resuming client", example = "1024") Long lastEventId) {
+        return orderChangeRelay.subscribe(lastEventIdHeader != null ? lastEventIdHeader : lastEventId);
+    }
+
+    @Operation(summary = "Order statistics", description = "Fetch order counts and revenue per status, per creation day, and for one customer or the customers with the most revenue. "
+            + "Served from memory and checked against the database periodically")
+    @ApiResponse(responseCode = "200", description = "Statistics retrieved successfully")
+    @GetMapping("/stats")
+    public OrderStats getOrderStats(
+            @RequestParam(required = false) @Schema(description = "Only report this customer", example = "12345") Long customerId,
+            @RequestParam(defaultValue = "10") @Schema(description = "Number of customers to report when no customer is given, up to 1000", example = "10") int top,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @Schema(description = "First creation day to report", example = "2024-12-01") LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) @Schema(description = "Last creation day to report", example = "2024-12-31") LocalDate to) {
+        return orderStatsStore.getStats(customerId, top, from, to);
     }
 
     @Operation(summary = "Retrieve an order by ID", description = "Fetch details of an order by its unique ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Order retrieved successfully"),
+            @ApiResponse(responseCode = "304", description = "Order not modified since the version in If-None-Match", content = @Content),
             @ApiResponse(responseCode = "404", description = "Order not found", content = @Content)
     })
     @GetMapping("/{id}")
-    public Order getOrderById(
+    public ResponseEntity<Order> getOrderById(
             @PathVariable @Schema(description = "ID of the order to retrieve", example = "1") Long id) {
-        return orderManagementService.getOrderById(id);
+        Order order = orderManagementService.getOrderById(id);
+        // A matching If-None-Match is answered with 304 before the body is serialized
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of(order.getVersion()))
+                .cacheControl(CacheControl.noCache())
+                .body(order);
+    }
+
+    @Operation(summary = "Retrieve the items of an order", description = "Fetch the products, quantities and unit prices of an order")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Order items retrieved successfully"),
+            @ApiResponse(responseCode = "404", description = "Order not found", content = @Content)
+    })
+    @GetMapping("/{id}/items")
+    public List<OrderItem> getOrderItems(
+            @PathVariable @Schema(description = "ID of the order", example = "1") Long id) {
+        return orderManagementService.getOrderItems(id);
+    }
+
+    @Operation(summary = "Retrieve the order history of a customer", description = "Fetch the order count, lifetime spend, last order date and most recent orders of a customer, "
+            + "archived orders included. Served from a per-customer cache refreshed when the customer's orders change")
+    @ApiResponse(responseCode = "200", description = "Order history retrieved successfully")
+    @GetMapping("/customer/{customerId}/history")
+    public CustomerOrderHistory getCustomerOrderHistory(
+            @PathVariable @Schema(description = "Customer ID associated with the orders", example = "12345") Long customerId) {
+        return customerOrderHistoryCache.getHistory(customerId);
+    }
+
+    @Operation(summary = "Page through the order history of a customer", description = "Fetch one page of the orders of a customer, newest first, archived orders included, "
+            + "using the cursor returned with the history or the previous page")
+    @ApiResponse(responseCode = "200", description = "Page of orders retrieved successfully")
+    @GetMapping("/customer/{customerId}/history/page")
+    public CursorPage<Order> getCustomerOrderPage(
+            @PathVariable @Schema(description = "Customer ID associated with the orders", example = "12345") Long customerId,
+            @RequestParam(defaultValue = "50") @Schema(description = "Maximum number of orders in the page", example = "50") int size,
+            @RequestParam(required = false) @Schema(description = "Cursor returned with the history or the previous page, omitted for the newest orders") String cursor) {
+        return orderManagementService.getCustomerOrderPage(customerId, cursor, size);
     }
 
-    @Operation(summary = "Retrieve orders by customer ID", description = "Fetch all orders placed by a specific customer")
+    @Operation(summary = "Customer history cache statistics", description = "Fetch hit, miss and eviction counters of the per-customer order history cache.")
+    @ApiResponse(responseCode = "200", description = "Cache statistics retrieved successfully")
+    @GetMapping("/customer/history/cache/stats")
+    public CacheStats getCustomerHistoryCacheStats() {
+        return customerOrderHistoryCache.getCacheStats();
+    }
+
+    @Operation(summary = "Retrieve orders by customer ID", description = "Fetch all orders placed by a specific customer, including the archived ones. "
+            + "Use /api/orders/customer/{customerId}/history for the summary and latest orders")
     @ApiResponse(responseCode = "200", description = "Orders retrieved successfully")
     @GetMapping("/customer/{customerId}")
-    public List<Order> getOrdersByCustomerId(
-            @PathVariable @Schema(description = "Customer ID associated with the orders", example = "12345") Long customerId) {
-        return orderManagementService.getOrdersByCustomerId(customerId);
+    public ResponseEntity<List<Order>> getOrdersByCustomerId(
+            @PathVariable @Schema(description = "Customer ID associated with the orders", example = "12345") Long customerId,
+            WebRequest request) {
+        return EntityTags.conditionalGet(request, orderManagementService.getOrdersETag(),
+                () -> orderManagementService.getOrdersByCustomerId(customerId));
     }
 
     @Operation(summary = "Retrieve orders by status", description = "Fetch all orders with a specific status")
     @ApiResponse(responseCode = "200", description = "Orders retrieved successfully")
     @GetMapping("/status/{status}")
-    public List<Order> getOrdersByStatus(
-            @PathVariable @Schema(description = "Status of the orders to retrieve", example = "PENDING") String status) {
-        return orderManagementService.getOrdersByStatus(status);
+    public ResponseEntity<List<Order>> getOrdersByStatus(
+            @PathVariable @Schema(description = "Status of the orders to retrieve", example = "PENDING") OrderStatus status,
+            WebRequest request) {
+        return EntityTags.conditionalGet(request, orderManagementService.getOrdersETag(),
+                () -> orderManagementService.getOrdersByStatus(status));
+    }
+
+    @Operation(summary = "Move orders to another status", description = "Move the listed orders, or all orders matching a customer and creation time window, "
+            + "from one status to another in one transaction. Listed orders that are not in the current status are reported as rejected. "
+            + "A filter moves at most 10000 orders per request; hasMore tells that more matching orders remain")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Orders moved, with the rejected ones"),
+            @ApiResponse(responseCode = "400", description = "A status is missing, too many IDs are given, or neither IDs nor a filter are", content = @Content),
+            @ApiResponse(responseCode = "409", description = "The transition is not allowed by the order lifecycle", content = @Content)
+    })
+    @PostMapping("/status-transitions")
+    public OrderStatusTransitionResult transitionOrders(
+            @RequestBody @Schema(description = "Current and new status, and the orders to move") OrderStatusTransition transition) {
+        return orderManagementService.transitionOrders(transition);
     }
 
-    @Operation(summary = "Update an existing order", description = "Modify the details of an existing order")
+    @Operation(summary = "Update an existing order", description = "Modify the details of an existing order. With If-Match, the update only applies if the order is still at that version")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Order updated successfully"),
-            @ApiResponse(responseCode = "404", description = "Order not found", content = @Content)
+            @ApiResponse(responseCode = "404", description = "Order not found", content = @Content),
+            @ApiResponse(responseCode = "409", description = "The order can not move to the new status, or is archived", content = @Content),
+            @ApiResponse(responseCode = "412", description = "Order modified since the version in If-Match", content = @Content)
     })
     @PutMapping("/{id}")
-    public Order updateOrder(
+    public ResponseEntity<Order> updateOrder(
             @PathVariable @Schema(description = "ID of the order to update", example = "1") Long id,
-            @RequestBody @Schema(description = "Updated order details") Order updatedOrder) {
-        return orderManagementService.updateOrder(id, updatedOrder);
+            @RequestBody @Schema(description = "Updated order details") Order updatedOrder,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) @Schema(description = "ETag of the version being updated", example = "\"2\"") String ifMatch) {
+        Order updated = orderManagementService.updateOrder(id, updatedOrder, EntityTags.requiredVersion(ifMatch));
+        return ResponseEntity.ok().eTag(EntityTags.of(updated.getVersion())).body(updated);
+    }
+
+    @Operation(summary = "Partially update an order", description = "Change only the provided fields of an order without loading it: one locking read of the fields the order statistics and change feed need, then a single UPDATE statement")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Order updated successfully"),
+            @ApiResponse(responseCode = "404", description = "Order not found", content = @Content),
+            @ApiResponse(responseCode = "409", description = "The order can not move to the new status, or is archived", content = @Content)
+    })
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patchOrder(
+            @PathVariable @Schema(description = "ID of the order to update", example = "1") Long id,
+            @RequestBody @Schema(description = "Order fields to change; omitted fields are left unchanged") Order changes) {
+        orderManagementService.patchOrder(id, changes);
+        return ResponseEntity.noContent().build();
     }
 
     @Operation(summary = "Delete an order by ID", description = "Remove an order from the platform by its ID")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "204", description = "Order deleted successfully"),
-            @ApiResponse(responseCode = "404", description = "Order not found", content = @Content)
+            @ApiResponse(responseCode = "404", description = "Order not found", content = @Content),
+            @ApiResponse(responseCode = "409", description = "The order is archived", content = @Content)
     })
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteOrder(
@@ -1,9 +1,45 @@
 package com.cdamayab.flox.ordermanagementservice;
 
+import com.cdamayab.flox.common.OrderArchivedException;
+import com.cdamayab.flox.common.OrderNotFoundException;
+import com.cdamayab.flox.common.ProductNotFoundException;
+import com.cdamayab.flox.productcatalogservice.Product;
+import com.cdamayab.flox.productcatalogservice.ProductCatalogService;
+import com.cdamayab.flox.common.PreconditionFailedException;
+import com.cdamayab.flox.common.TableChangeCounter;
+import com.cdamayab.flox.common.CursorPage;
+import com.cdamayab.flox.common.InvalidStatusTransitionException;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Service class for managing Order entities.
@@ -11,92 +47,694 @@ import java.util.List;
 @Service
 public class OrderManagementService {
 
+    /** Number of orders returned by the full listings when the client does not ask for a limit. */
+    public static final int DEFAULT_LIST_LIMIT = 100;
+
+    /** Largest number of orders a listing or page can return. */
+    public static final int MAX_LIST_LIMIT = 1000;
+
+    /** Largest number of orders a bulk status transition moves at once. */
+    public static final int MAX_TRANSITION_BATCH = 10000;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO orders (customer_id, total_price, status, created_at, updated_at, version) VALUES (?, ?, ?, ?, ?, 0)";
+
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private OrderItemRepository orderItemRepository;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private OrderIdempotencyKeyRepository orderIdempotencyKeyRepository;
+
+    @Autowired
+    private OrderOutboxRepository orderOutboxRepository;
+
+    @Autowired
+    private ProductCatalogService productCatalogService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    /** Committed order changes, behind the ETag of the order listings. */
+    private TableChangeCounter orderChanges;
+
+    @PostConstruct
+    void initChangeCounter() {
+        orderChanges = new TableChangeCounter(jdbcTemplate, "orders");
+    }
+
+    /**
+     * Returns the ETag of the order listings, which changes whenever an order is written.
+     *
+     * @return the strong ETag of the current orders
+     */
+    public String getOrdersETag() {
+        return orderChanges.eTag();
+    }
+
+    /**
+     * Retrieves the most recent orders, newest first. The listing is bounded; use
+     * {@link #queryOrders(OrderQuery, String, int)} to walk through all of them.
+     *
+     * @param limit the maximum number of orders to return
+     * @return the most recent orders
+     * @throws IllegalArgumentException if the limit is out of range
+     */
+    public List<Order> getAllOrders(int limit) {
+        checkLimit(limit);
+        return orderRepository.findAllByOrderByCreatedAtDescIdDesc(Limit.of(limit));
+    }
+
+    /**
+     * Retrieves the summaries (ID, status and total price) of the most recent orders, newest first.
+     * Only those columns are read and no entity is loaded.
+     *
+     * @param limit the maximum number of orders to return
+     * @return the summaries of the most recent orders
+     * @throws IllegalArgumentException if the limit is out of range
+     */
+    public List<OrderSummary> getAllOrderSummaries(int limit) {
+        checkLimit(limit);
+        return orderRepository.findRecentSummaries(Limit.of(limit));
+    }
+
+    /**
+     * Retrieves one page of the orders matching a query, ordered by creation time, using keyset pagination.
+     *
+     * @param query  the filters; null filters are ignored
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param size   the maximum number of orders in the page
+     * @return the page of orders and the cursor of the next page
+     * @throws IllegalArgumentException if the page size is out of range, the time window is inverted or the cursor is malformed
+     */
+    public CursorPage<Order> queryOrders(OrderQuery query, String cursor, int size) {
+        checkLimit(size);
+        if (query.from() != null && query.to() != null && !query.from().isBefore(query.to())) {
+            throw new IllegalArgumentException("The start of the time window must be before its end.");
+        }
+        List<Order> rows = orderRepository.findPage(query, OrderCursor.decode(cursor), size + 1);
+        return CursorPage.of(rows, size, OrderCursor::after);
+    }
+
+    /**
+     * Computes the order counts and revenue per status, per customer and per day from the orders
+     * table and the archive. The aggregations run in one read-only transaction, so they see the same
+     * snapshot. This reads every order; it backs the periodic reconciliation of {@link OrderStatsStore},
+     * which serves the statistics to clients.
+     *
+     * @return the statistics of all orders, with every customer and every day
+     */
+    @Transactional(readOnly = true)
+    public OrderStats computeOrderStats() {
+        LocalDateTime now = LocalDateTime.now();
+        List<OrderStats.StatusStats> byStatus = new ArrayList<>();
+        long totalOrders = 0;
+        double totalRevenue = 0;
+        for (Map.Entry<OrderStatus, Sum> entry : OrderManagementService.<OrderStatus>sumRows(
+                orderRepository.sumByStatus(), archivedOrderRepository.sumByStatus()).entrySet()) {
+            byStatus.add(new OrderStats.StatusStats(entry.getKey(), entry.getValue().count(), entry.getValue().revenue()));
+            totalOrders += entry.getValue().count();
+            totalRevenue += entry.getValue().revenue();
+        }
+        List<OrderStats.CustomerStats> byCustomer = new ArrayList<>();
+        OrderManagementService.<Long>sumRows(orderRepository.sumByCustomer(), archivedOrderRepository.sumByCustomer())
+                .forEach((customerId, sum) -> byCustomer.add(new OrderStats.CustomerStats(customerId, sum.count(), sum.revenue())));
+        List<OrderStats.DayStats> byDay = new ArrayList<>();
+        OrderManagementService.<LocalDate>sumRows(orderRepository.sumByDay(), archivedOrderRepository.sumByDay())
+                .forEach((day, sum) -> byDay.add(new OrderStats.DayStats(day, sum.count(), sum.revenue())));
+        return new OrderStats(totalOrders, totalRevenue, byStatus, byCustomer, byDay, now);
+    }
+
     /**
-     * Retrieves all orders from the database.
+     * Tells which order changes are visible to the current transaction. Called in the transaction of
+     * {@link #computeOrderStats()}, it returns the changes already counted in the statistics.
      *
-     * @return a list of all orders
+     * @param changeIds IDs of outbox rows
+     * @return the IDs of the rows that are visible
+     */
+    @Transactional(readOnly = true)
+    public Set<Long> findVisibleOrderChanges(Collection<Long> changeIds) {
+        List<Long> ids = List.copyOf(changeIds);
+        Set<Long> visible = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += MAX_LIST_LIMIT) {
+            visible.addAll(orderOutboxRepository.findIdsByIdIn(ids.subList(from, Math.min(from + MAX_LIST_LIMIT, ids.size()))));
+        }
+        return visible;
+    }
+
+    /**
+     * Adds up (key, count, revenue) rows of the orders table and of the archive by key.
      */
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    @SuppressWarnings("unchecked")
+    private static <K> Map<K, Sum> sumRows(List<Object[]> orders, List<Object[]> archived) {
+        Map<K, Sum> sums = new LinkedHashMap<>();
+        for (List<Object[]> rows : List.of(orders, archived)) {
+            for (Object[] row : rows) {
+                sums.merge((K) row[0], new Sum(((Number) row[1]).longValue(), ((Number) row[2]).doubleValue()), Sum::plus);
+            }
+        }
+        return sums;
+    }
+
+    private record Sum(long count, double revenue) {
+        Sum plus(Sum other) {
+            return new Sum(count + other.count, revenue + other.revenue);
+        }
     }
 
     /**
-     * Retrieves an order by its ID.
+     * Records a change of one order: in the outbox, in the same transaction as the change,
+     * for the listing ETag and for the in-memory order views.
+     *
+     * @param before the order before the change, null when it was created
+     * @param after  the order after the change, null when it was deleted
+     */
+    private void orderWritten(OrderSnapshot before, OrderSnapshot after) {
+        OrderChange.Type type = before == null ? OrderChange.Type.CREATED
+                : after == null ? OrderChange.Type.DELETED : OrderChange.Type.UPDATED;
+        OrderOutboxEntry entry = orderOutboxRepository.save(OrderOutboxEntry.of(type, after != null ? after : before, LocalDateTime.now()));
+        orderChanged();
+        eventPublisher.publishEvent(new OrderChangedEvent(before, after, entry.getId()));
+    }
+
+    /**
+     * Counts an order change for the listing ETag, in the transaction that writes it.
+     */
+    private void orderChanged() {
+        orderChanges.increment();
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIST_LIMIT) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_LIST_LIMIT + ".");
+        }
+    }
+
+    /**
+     * Retrieves an order by its ID, from the orders table or else from the archive.
      *
      * @param id the ID of the order
      * @return the order with the specified ID
-     * @throws IllegalArgumentException if the order does not exist
+     * @throws OrderNotFoundException if the order does not exist
      */
     public Order getOrderById(Long id) {
         return orderRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Order not found with ID: " + id));
+                .or(() -> archivedOrderRepository.findById(id).map(ArchivedOrder::toOrder))
+                .orElseThrow(() -> new OrderNotFoundException("Order not found with ID: " + id));
+    }
+
+    /**
+     * @param id the ID of an order missing from the orders table
+     * @return the exception telling the order is archived, or does not exist
+     */
+    private RuntimeException missingOrder(Long id) {
+        if (archivedOrderRepository.existsById(id)) {
+            return new OrderArchivedException("Order with ID: " + id + " is archived and can not be modified.");
+        }
+        return new OrderNotFoundException("Order not found with ID: " + id);
     }
 
     /**
-     * Creates a new order.
+     * Creates a new order. Orders without a status start as PENDING.
      *
      * @param order the order to create
      * @return the created order
      */
+    @Transactional
     public Order createOrder(Order order) {
+        if (order.getStatus() == null) order.setStatus(OrderStatus.PENDING);
         order.setCreatedAt(LocalDateTime.now());
         order.setUpdatedAt(LocalDateTime.now());
-        return orderRepository.save(order);
+        Order created = orderRepository.save(order);
+        orderWritten(null, OrderSnapshot.of(created));
+        return created;
+    }
+
+    /**
+     * Creates a new order and records it under an idempotency key, in one transaction.
+     * The order is inserted first; if the key was recorded meanwhile, the key insert fails on the
+     * unique index and the order is rolled back with it.
+     *
+     * @param order          the order to create
+     * @param idempotencyKey the key sent by the client
+     * @param requestHash    hash of the request, to recognize a reuse of the key with another request
+     * @return the created order
+     * @throws DataIntegrityViolationException if an order was already created with the key
+     */
+    @Transactional
+    public Order createOrder(Order order, String idempotencyKey, String requestHash) {
+        Order created = createOrder(order);
+        OrderIdempotencyKey record = new OrderIdempotencyKey();
+        record.setIdempotencyKey(idempotencyKey);
+        record.setOrderId(created.getId());
+        record.setRequestHash(requestHash);
+        record.setCreatedAt(created.getCreatedAt());
+        orderIdempotencyKeyRepository.save(record);
+        return created;
+    }
+
+    /**
+     * Retrieves the record of an idempotency key.
+     *
+     * @param idempotencyKey the key sent by the client
+     * @return the order ID and request hash recorded for the key, or empty if none was
+     */
+    public Optional<OrderIdempotencyKey> findIdempotencyKey(String idempotencyKey) {
+        return orderIdempotencyKeyRepository.findByIdempotencyKey(idempotencyKey);
+    }
+
+    /**
+     * Creates several orders with one JDBC batch in a single transaction, so the whole batch costs
+     * one commit. With {@code rewriteBatchedStatements} the driver sends it as one multi-row INSERT.
+     * Orders without a creation time are stamped with the current time.
+     *
+     * @param orders the orders to create; their IDs and versions are set on success
+     * @return the created orders
+     */
+    @Transactional
+    public List<Order> createOrders(List<Order> orders) {
+        LocalDateTime now = LocalDateTime.now();
+        for (Order order : orders) {
+            if (order.getCreatedAt() == null) order.setCreatedAt(now);
+            if (order.getStatus() == null) order.setStatus(OrderStatus.PENDING);
+            order.setUpdatedAt(order.getCreatedAt());
+        }
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Order order = orders.get(i);
+                        ps.setObject(1, order.getCustomerId(), Types.BIGINT);
+                        ps.setObject(2, order.getTotalPrice(), Types.DOUBLE);
+                        ps.setString(3, order.getStatus().name());
+                        ps.setTimestamp(4, Timestamp.valueOf(order.getCreatedAt()));
+                        ps.setTimestamp(5, Timestamp.valueOf(order.getUpdatedAt()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return orders.size();
+                    }
+                },
+                keys);
+        List<Map<String, Object>> generated = keys.getKeyList();
+        for (int i = 0; i < orders.size(); i++) {
+            orders.get(i).setId(((Number) generated.get(i).values().iterator().next()).longValue());
+            orders.get(i).setVersion(0L);
+        }
+        orderOutboxRepository.recordFromOrders(orders.stream().map(Order::getId).toList(), OrderChange.Type.CREATED.name(), now);
+        long changeId = orderOutboxRepository.findLastInsertId();
+        orderChanged();
+        orders.forEach(order -> eventPublisher.publishEvent(new OrderChangedEvent(null, OrderSnapshot.of(order), changeId)));
+        return orders;
+    }
+
+    /**
+     * Places an order from its items in a single transaction. The prices of all the products are
+     * read with one query, the total is computed from them, and the items are inserted in JDBC
+     * batches, so the number of round trips does not grow with the number of items.
+     *
+     * @param newOrder the customer and the products with their quantities
+     * @return the created order and its items, with the unit prices used for the total
+     * @throws ProductNotFoundException if an ordered product does not exist
+     * @throws IllegalArgumentException if the order has no items, or an item has no product or a non-positive quantity
+     */
+    @Transactional
+    public OrderDetails createOrderWithItems(NewOrder newOrder) {
+        if (newOrder.items() == null || newOrder.items().isEmpty()) {
+            throw new IllegalArgumentException("An order must have at least one item.");
+        }
+        Set<Long> productIds = new HashSet<>();
+        for (NewOrder.Item item : newOrder.items()) {
+            if (item.productId() == null) {
+                throw new IllegalArgumentException("Product ID is required for every item.");
+            }
+            if (item.quantity() == null || !(item.quantity() > 0) || item.quantity().isInfinite()) {
+                throw new IllegalArgumentException("Quantity must be greater than zero.");
+            }
+            productIds.add(item.productId());
+        }
+
+        Map<Long, Product> products = productCatalogService.getProductsByIds(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<OrderItem> items = new ArrayList<>(newOrder.items().size());
+        double total = 0;
+        for (NewOrder.Item line : newOrder.items()) {
+            Product product = products.get(line.productId());
+            if (product == null) {
+                throw new ProductNotFoundException("Product not found with ID: " + line.productId());
+            }
+            if (product.getPrice() == null) {
+                throw new IllegalArgumentException("Product with ID: " + line.productId() + " has no price.");
+            }
+            OrderItem item = new OrderItem();
+            item.setProductId(line.productId());
+            item.setQuantity(line.quantity());
+            item.setUnitPrice(product.getPrice());
+            items.add(item);
+            total += (double) product.getPrice() * line.quantity();
+        }
+
+        Order order = new Order();
+        order.setCustomerId(newOrder.customerId());
+        order.setStatus(newOrder.status() != null ? newOrder.status() : OrderStatus.PENDING);
+        order.setTotalPrice(total);
+        order.setCreatedAt(LocalDateTime.now());
+        order.setUpdatedAt(order.getCreatedAt());
+        Order created = orderRepository.save(order);
+
+        items.forEach(item -> item.setOrderId(created.getId()));
+        List<OrderItem> savedItems = orderItemRepository.saveAll(items);
+        orderWritten(null, OrderSnapshot.of(created));
+        return new OrderDetails(created, savedItems);
+    }
+
+    /**
+     * Retrieves the items of an order.
+     *
+     * @param id the ID of the order
+     * @return the items of the order
+     * @throws OrderNotFoundException if the order does not exist
+     */
+    public List<OrderItem> getOrderItems(Long id) {
+        List<OrderItem> items = orderItemRepository.findByOrderIdOrderByIdAsc(id);
+        if (items.isEmpty() && !orderRepository.existsById(id) && !archivedOrderRepository.existsById(id)) {
+            throw new OrderNotFoundException("Order not found with ID: " + id);
+        }
+        return items;
     }
 
     /**
      * Updates an existing order.
      *
-     * @param id           the ID of the order to update
-     * @param updatedOrder the updated order details
+     * @param id              the ID of the order to update
+     * @param updatedOrder    the updated order details
+     * @param expectedVersion the version the client last read (from If-Match), or null to update any version
      * @return the updated order
-     * @throws IllegalArgumentException if the order does not exist
+     * @throws OrderNotFoundException if the order does not exist
+     * @throws OrderArchivedException if the order is archived
+     * @throws PreconditionFailedException if the order is no longer at the expected version
+     * @throws InvalidStatusTransitionException if the order can not move from its status to the new one
      */
-    public Order updateOrder(Long id, Order updatedOrder) {
-        Order existingOrder = getOrderById(id);
+    @Transactional
+    public Order updateOrder(Long id, Order updatedOrder, Long expectedVersion) {
+        Order existingOrder = orderRepository.findById(id).orElseThrow(() -> missingOrder(id));
+        if (expectedVersion != null && !expectedVersion.equals(existingOrder.getVersion())) {
+            throw new PreconditionFailedException("Order with ID: " + id + " was modified, current version is " + existingOrder.getVersion());
+        }
+        OrderStatus currentStatus = existingOrder.getStatus();
+        if (updatedOrder.getStatus() != null && currentStatus != null && updatedOrder.getStatus() != currentStatus
+                && !currentStatus.canTransitionTo(updatedOrder.getStatus())) {
+            throw new InvalidStatusTransitionException("Order with ID: " + id + " can not move from " + currentStatus + " to " + updatedOrder.getStatus() + ".");
+        }
 
+        OrderSnapshot before = OrderSnapshot.of(existingOrder);
         if (updatedOrder.getCustomerId() != null) existingOrder.setCustomerId(updatedOrder.getCustomerId());
         if (updatedOrder.getTotalPrice() != null) existingOrder.setTotalPrice(updatedOrder.getTotalPrice());
         if (updatedOrder.getStatus() != null) existingOrder.setStatus(updatedOrder.getStatus());
 
         existingOrder.setUpdatedAt(LocalDateTime.now());
-        return orderRepository.save(existingOrder);
+        Order saved = orderRepository.save(existingOrder);
+        orderWritten(before, OrderSnapshot.of(saved));
+        return saved;
+    }
+
+    /**
+     * Partially updates an order with a single UPDATE statement touching only the provided fields.
+     * The order entity is not loaded, but the update is not blind either: the aggregated fields are
+     * read first with the row locked (a {@code SELECT ... FOR UPDATE}), to write the change to the
+     * outbox and tell the order views exactly what changed. A PATCH therefore costs one locking read
+     * plus the update.
+     *
+     * @param id      the ID of the order to update
+     * @param changes the fields to update; null fields are left unchanged
+     * @throws OrderNotFoundException if the order does not exist
+     * @throws OrderArchivedException if the order is archived
+     * @throws InvalidStatusTransitionException if the order can not move from its status to the new one
+     * @throws IllegalArgumentException if no field is provided
+     */
+    @Transactional
+    public void patchOrder(Long id, Order changes) {
+        if (changes.getCustomerId() == null && changes.getTotalPrice() == null && changes.getStatus() == null) {
+            throw new IllegalArgumentException("At least one order field must be provided.");
+        }
+        OrderSnapshot before = orderRepository.lockSnapshot(id);
+        if (before == null) {
+            throw missingOrder(id);
+        }
+        if (orderRepository.patch(id, changes) == 0) {
+            throw new InvalidStatusTransitionException("Order with ID: " + id + " can not move from " + before.status() + " to " + changes.getStatus() + ".");
+        }
+        orderWritten(before, before.with(changes));
     }
 
     /**
      * Deletes an order by its ID.
      *
-     * @param id the ID of the order to delete
-     * @throws IllegalArgumentException if the order does not exist
+     * @param id the ID of the order to delete, together with its items
+     * @throws OrderNotFoundException if the order does not exist
+     * @throws OrderArchivedException if the order is archived
      */
+    @Transactional
     public void deleteOrder(Long id) {
-        if (!orderRepository.existsById(id)) {
-            throw new IllegalArgumentException("Order not found with ID: " + id);
+        OrderSnapshot before = orderRepository.lockSnapshot(id);
+        if (before == null) {
+            throw missingOrder(id);
         }
+        orderItemRepository.deleteAllByOrderId(id);
         orderRepository.deleteById(id);
+        orderWritten(before, null);
     }
 
     /**
-     * Retrieves orders by customer ID.
+     * Retrieves orders by customer ID, including the archived ones.
      *
      * @param customerId the ID of the customer
-     * @return a list of orders belonging to the specified customer
+     * @return a list of orders belonging to the specified customer, the archived ones first
      */
     public List<Order> getOrdersByCustomerId(Long customerId) {
-        return orderRepository.findByCustomerId(customerId);
+        List<Order> orders = new ArrayList<>();
+        archivedOrderRepository.findByCustomerIdOrderByCreatedAtAscIdAsc(customerId)
+                .forEach(archived -> orders.add(archived.toOrder()));
+        orders.addAll(orderRepository.findByCustomerId(customerId));
+        return orders;
+    }
+
+    /**
+     * Computes the history of a customer across the orders table and the archive: its order count,
+     * lifetime spend and latest order date with one aggregate query per table, and its most recent
+     * orders. Uncached; see {@link CustomerOrderHistoryCache}.
+     *
+     * @param customerId the ID of the customer
+     * @param recent     number of recent orders to include
+     * @return the history of the customer
+     */
+    @Transactional(readOnly = true)
+    public CustomerOrderHistory computeCustomerOrderHistory(Long customerId, int recent) {
+        CustomerOrderTotals hot = orderRepository.findCustomerTotals(customerId);
+        CustomerOrderTotals archived = archivedOrderRepository.findCustomerTotals(customerId);
+        LocalDateTime lastOrderAt = hot.lastOrderAt() == null ? archived.lastOrderAt()
+                : archived.lastOrderAt() == null || hot.lastOrderAt().isAfter(archived.lastOrderAt()) ? hot.lastOrderAt()
+                : archived.lastOrderAt();
+        CursorPage<Order> page = getCustomerOrderPage(customerId, null, recent);
+        return new CustomerOrderHistory(customerId,
+                hot.count() + archived.count(),
+                (hot.spend() == null ? 0 : hot.spend()) + (archived.spend() == null ? 0 : archived.spend()),
+                lastOrderAt,
+                page.items(),
+                page.nextCursor());
+    }
+
+    /**
+     * Retrieves one page of the orders of a customer, newest first, across the orders table and the
+     * archive. Both tables are read with a seek on their (customer_id, created_at, id) index and the
+     * two pages are merged.
+     *
+     * @param customerId the ID of the customer
+     * @param cursor     the cursor returned with the previous page, or null for the first page
+     * @param size       the maximum number of orders in the page
+     * @return the page of orders and the cursor of the next page
+     * @throws IllegalArgumentException if the page size is out of range or the cursor is malformed
+     */
+    public CursorPage<Order> getCustomerOrderPage(Long customerId, String cursor, int size) {
+        checkLimit(size);
+        OrderCursor after = OrderCursor.decode(cursor);
+        List<Order> rows = new ArrayList<>(orderRepository.findPage(
+                new OrderQuery(null, customerId, null, null, Sort.Direction.DESC), after, size + 1));
+        List<ArchivedOrder> archived = after == null
+                ? archivedOrderRepository.findByCustomerIdAndCreatedAtNotNullOrderByCreatedAtDescIdDesc(customerId, Limit.of(size + 1))
+                : archivedOrderRepository.findCustomerPageBefore(customerId, after.createdAt(), after.id(), Limit.of(size + 1));
+        archived.forEach(order -> rows.add(order.toOrder()));
+        rows.sort(Comparator.comparing(Order::getCreatedAt).thenComparing(Order::getId).reversed());
+        return CursorPage.of(rows.size() > size + 1 ? rows.subList(0, size + 1) : rows, size, OrderCursor::after);
+    }
+
+    /**
+     * Moves up to {@code limit} orders in a final status, created before the cutoff, to the archive
+     * in one transaction: the rows are locked, copied with one INSERT ... SELECT and deleted with one
+     * DELETE. Their items stay where they are.
+     *
+     * @param cutoff only orders created before this time are archived
+     * @param limit  maximum number of orders to archive
+     * @return the number of archived orders
+     */
+    @Transactional
+    public int archiveOrders(LocalDateTime cutoff, int limit) {
+        List<Long> ids = new ArrayList<>();
+        for (OrderStatus status : OrderStatus.values()) {
+            if (status.isFinal() && ids.size() < limit) {
+                ids.addAll(orderRepository.lockArchivable(status.name(), cutoff, limit - ids.size()));
+            }
+        }
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archivedOrderRepository.copyFromOrders(ids, LocalDateTime.now());
+        int archived = orderRepository.deleteByIds(ids);
+        orderChanged();
+        return archived;
     }
 
     /**
      * Retrieves orders by their status.
      *
-     * @param status the status of the orders (e.g., "PENDING", "COMPLETED")
+     * @param status the status of the orders (e.g., PENDING, COMPLETED)
      * @return a list of orders with the specified status
      */
-    public List<Order> getOrdersByStatus(String status) {
+    public List<Order> getOrdersByStatus(OrderStatus status) {
         return orderRepository.findByStatus(status);
     }
 
+    /**
+     * Moves many orders from one status to another in one transaction. The orders concerned
+     * (the listed ones, or those matching the filter, up to {@link #MAX_TRANSITION_BATCH}) are locked
+     * in ID order and then moved with a single {@code UPDATE ... WHERE id IN (...) AND status = :from}.
+     * Listed orders that do not exist or are not in the {@code from} status are reported as rejected.
+     * A filter must set at least one of the customer and the creation bounds; when it matches more than
+     * {@link #MAX_TRANSITION_BATCH} orders, the first ones by ID are moved and the result says more remain.
+     *
+     * @param transition the statuses, and the IDs or the filter
+     * @return the moved and rejected orders
+     * @throws InvalidStatusTransitionException if the state machine does not allow the transition
+     * @throws IllegalArgumentException if a status is missing, too many IDs are given, or neither IDs nor a filter are
+     */
+    @Transactional
+    public OrderStatusTransitionResult transitionOrders(OrderStatusTransition transition) {
+        if (transition.from() == null || transition.to() == null) {
+            throw new IllegalArgumentException("Both the current and the new status must be provided.");
+        }
+        if (!transition.from().canTransitionTo(transition.to())) {
+            throw new InvalidStatusTransitionException("Orders can not move from " + transition.from() + " to " + transition.to() + ".");
+        }
+        boolean byIds = transition.ids() != null && !transition.ids().isEmpty();
+        Set<Long> requested = byIds ? new TreeSet<>(transition.ids()) : Set.of();
+        if (requested.size() > MAX_TRANSITION_BATCH) {
+            throw new IllegalArgumentException("At most " + MAX_TRANSITION_BATCH + " orders can be moved at once.");
+        }
+        if (!byIds && transition.customerId() == null && transition.createdFrom() == null && transition.createdTo() == null) {
+            throw new IllegalArgumentException("Either the IDs of the orders or a customer or creation time filter must be provided.");
+        }
+
+        // One row more than the batch tells whether the filter matches more orders than are moved
+        List<Long> moved = orderRepository.lockForTransition(transition, MAX_TRANSITION_BATCH + 1);
+        boolean hasMore = moved.size() > MAX_TRANSITION_BATCH;
+        if (hasMore) {
+            moved = moved.subList(0, MAX_TRANSITION_BATCH);
+        }
+        if (!moved.isEmpty()) {
+            double totalPrice = orderRepository.sumTotalPriceByIdIn(moved);
+            List<Long> customerIds = orderRepository.findCustomerIdsByIdIn(moved);
+            LocalDateTime now = LocalDateTime.now();
+            orderRepository.transitionStatus(moved, transition.from(), transition.to(), now);
+            orderOutboxRepository.recordFromOrders(moved, OrderChange.Type.UPDATED.name(), now);
+            long changeId = orderOutboxRepository.findLastInsertId();
+            orderChanged();
+            eventPublisher.publishEvent(new OrdersTransitionedEvent(moved, customerIds, transition.from(), transition.to(), totalPrice, changeId));
+        }
+
+        List<OrderStatusTransitionResult.Rejection> rejected = new ArrayList<>();
+        if (byIds) {
+            requested.removeAll(moved);
+            Map<Long, OrderStatus> current = requested.isEmpty() ? Map.of() : orderRepository.findSummariesByIdIn(requested).stream()
+                    .collect(Collectors.toMap(OrderSummary::id, OrderSummary::status));
+            for (Long id : requested) {
+                OrderStatus status = current.get(id);
+                rejected.add(new OrderStatusTransitionResult.Rejection(id, status, current.containsKey(id)
+                        ? "Order is " + status + ", not " + transition.from() + "."
+                        : "Order not found."));
+            }
+        }
+        return new OrderStatusTransitionResult(transition.from(), transition.to(), moved, rejected, hasMore);
+    }
+
+
+    /**
+     * @return the oldest position still kept in the order change feed, 0 if it is empty
+     */
+    public long getOldestOrderChangePosition() {
+        return orderOutboxRepository.findMinFeedPosition();
+    }
+
+    /**
+     * @return the latest position of the order change feed, 0 if it is empty
+     */
+    public long getLatestOrderChangePosition() {
+        return orderOutboxRepository.findMaxFeedPosition();
+    }
+
+    /**
+     * Gives the oldest outbox rows not published yet their position in the change feed, following
+     * the latest one. The rows are locked in ID order, so concurrent relays take turns and positions
+     * are committed in increasing order.
+     *
+     * @param limit maximum number of rows to publish
+     * @return the number of rows given a position
+     */
+    @Transactional
+    public int assignOrderChangePositions(int limit) {
+        List<OrderOutboxEntry> entries = orderOutboxRepository.lockUnpublished(limit);
+        if (entries.isEmpty()) {
+            return 0;
+        }
+        long position = orderOutboxRepository.findMaxFeedPosition();
+        for (OrderOutboxEntry entry : entries) {
+            entry.setFeedPosition(++position);
+        }
+        return entries.size();
+    }
+
+    /**
+     * Retrieves the published order changes between two feed positions.
+     *
+     * @param after  the position to start after
+     * @param before the position to stop before
+     * @param limit  maximum number of changes to return
+     * @return the changes, in feed order
+     */
+    public List<OrderChange> getOrderChanges(long after, long before, int limit) {
+        return orderOutboxRepository.findByFeedPositionGreaterThanAndFeedPositionLessThanOrderByFeedPositionAsc(after, before, Limit.of(limit))
+                .stream().map(OrderOutboxEntry::toChange).toList();
+    }
+
+    /**
+     * Deletes published order changes older than a cutoff.
+     *
+     * @param cutoff only changes before this time are deleted
+     * @param limit  maximum number of changes to delete
+     * @return the number of deleted changes
+     */
+    @Transactional
+    public int purgeOrderChanges(LocalDateTime cutoff, int limit) {
+        return orderOutboxRepository.purgePublishedBefore(cutoff, limit);
+    }
 }
@@ -0,0 +1,73 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A row of the transactional outbox: an order change written in the same transaction as the change
+ * itself, then given its position in the change feed by {@link OrderChangeRelay}.
+ */
+@Entity
+@Table(name = "order_outbox", uniqueConstraints = {
+    // Also serves the relay, which reads the rows without a position yet (NULLs) in ID order
+    @UniqueConstraint(name = "uk_order_outbox_feed_position", columnNames = "feed_position")
+}, indexes = {
+    @Index(name = "idx_order_outbox_occurred_at", columnList = "occurred_at")
+})
+public class OrderOutboxEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Position in the feed, assigned by the relay in publication order, so the feed has no gaps even though IDs commit out of order
+    private Long feedPosition;
+
+    @Column(nullable = false)
+    private Long orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OrderChange.Type changeType;
+
+    private Long customerId;
+
+    private Double totalPrice;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+
+    static OrderOutboxEntry of(OrderChange.Type changeType, OrderSnapshot order, LocalDateTime occurredAt) {
+        OrderOutboxEntry entry = new OrderOutboxEntry();
+        entry.orderId = order.id();
+        entry.changeType = changeType;
+        entry.customerId = order.customerId();
+        entry.totalPrice = order.totalPrice();
+        entry.status = order.status();
+        entry.occurredAt = occurredAt;
+        return entry;
+    }
+
+    /**
+     * @return the feed entry of this row, which must have its feed position
+     */
+    public OrderChange toChange() {
+        return new OrderChange(feedPosition, changeType, orderId, customerId, totalPrice, status, occurredAt);
+    }
+
+    // Getters
+    public Long getId()                       { return id; }
+    public Long getFeedPosition()             { return feedPosition; }
+    public Long getOrderId()                  { return orderId; }
+    public OrderChange.Type getChangeType()   { return changeType; }
+    public Long getCustomerId()               { return customerId; }
+    public Double getTotalPrice()             { return totalPrice; }
+    public OrderStatus getStatus()            { return status; }
+    public LocalDateTime getOccurredAt()      { return occurredAt; }
+
+    // Setters
+    public void setFeedPosition(Long feedPosition) { this.feedPosition = feedPosition; }
+}
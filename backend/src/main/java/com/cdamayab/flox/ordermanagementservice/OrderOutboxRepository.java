@@ -0,0 +1,89 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Repository interface for the order change outbox.
+ */
+@Repository
+public interface OrderOutboxRepository extends JpaRepository<OrderOutboxEntry, Long> {
+
+    /**
+     * Writes one outbox row per order with a single statement, from the current values of the orders.
+     *
+     * @param ids        the IDs of the changed orders
+     * @param changeType the kind of change, as stored
+     * @param occurredAt the time of the change
+     * @return the number of rows written
+     */
+    @Modifying
+    @Query(value = "INSERT INTO order_outbox (order_id, change_type, customer_id, total_price, status, occurred_at) "
+            + "SELECT id, :changeType, customer_id, total_price, status, :occurredAt FROM orders WHERE id IN (:ids)",
+            nativeQuery = true)
+    int recordFromOrders(@Param("ids") Collection<Long> ids, @Param("changeType") String changeType,
+            @Param("occurredAt") LocalDateTime occurredAt);
+
+    /**
+     * @return the ID of the first row written by the last insert of this connection
+     */
+    @Query(value = "SELECT LAST_INSERT_ID()", nativeQuery = true)
+    long findLastInsertId();
+
+    /**
+     * @param ids IDs of outbox rows
+     * @return the IDs among them of the rows that exist and are visible to the current transaction
+     */
+    @Query("SELECT e.id FROM OrderOutboxEntry e WHERE e.id IN :ids")
+    List<Long> findIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Locks the oldest rows not yet given a position in the feed.
+     *
+     * @param limit maximum number of rows to lock
+     * @return the rows, in ID order
+     */
+    @Query(value = "SELECT * FROM order_outbox WHERE feed_position IS NULL ORDER BY id LIMIT :limit FOR UPDATE", nativeQuery = true)
+    List<OrderOutboxEntry> lockUnpublished(@Param("limit") int limit);
+
+    /**
+     * @return the lowest position not purged yet, 0 if none
+     */
+    @Query("SELECT COALESCE(MIN(e.feedPosition), 0) FROM OrderOutboxEntry e")
+    long findMinFeedPosition();
+
+    /**
+     * @return the highest position given so far, 0 if none
+     */
+    @Query("SELECT COALESCE(MAX(e.feedPosition), 0) FROM OrderOutboxEntry e")
+    long findMaxFeedPosition();
+
+    /**
+     * Finds the feed entries between two positions, in feed order.
+     *
+     * @param after  the position to start after
+     * @param before the position to stop before
+     * @param limit  maximum number of entries to return
+     * @return the entries
+     */
+    List<OrderOutboxEntry> findByFeedPositionGreaterThanAndFeedPositionLessThanOrderByFeedPositionAsc(long after, long before, Limit limit);
+
+    /**
+     * Deletes published rows older than a cutoff.
+     *
+     * @param cutoff only rows of changes before this time are deleted
+     * @param limit  maximum number of rows to delete
+     * @return the number of deleted rows
+     */
+    @Modifying
+    @Query(value = "DELETE FROM order_outbox WHERE occurred_at < :cutoff AND feed_position IS NOT NULL LIMIT :limit", nativeQuery = true)
+    int purgePublishedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+}
@@ -0,0 +1,23 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filters of an order query. Every filter is optional; null filters are left out of the
+ * generated statement. Results are ordered by creation time, ties broken by ID.
+ *
+ * @param status     only orders with this status
+ * @param customerId only orders of this customer
+ * @param from       only orders created at or after this time
+ * @param to         only orders created before this time
+ * @param direction  ASC for oldest first, DESC for newest first
+ */
+public record OrderQuery(
+        OrderStatus status,
+        Long customerId,
+        LocalDateTime from,
+        LocalDateTime to,
+        Sort.Direction direction) {
+}
@@ -1,15 +1,21 @@
 package com.cdamayab.flox.ordermanagementservice;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * Repository interface for managing Order entities.
  */
 @Repository
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderRepositoryCustom {
 
     /**
      * Finds orders by the customer ID.
@@ -22,10 +28,10 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     /**
      * Finds orders by their status.
      *
-     * @param status the status of the orders (e.g., "PENDING", "COMPLETED")
+     * @param status the status of the orders (e.g., PENDING, COMPLETED)
      * @return a list of orders with the specified status
      */
-    List<Order> findByStatus(String status);
+    List<Order> findByStatus(OrderStatus status);
 
     /**
      * Finds orders within a specific total price range.
@@ -35,4 +41,126 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
      * @return a list of orders within the specified price range
      */
     List<Order> findByTotalPriceBetween(Double minPrice, Double maxPrice);
+
+    /**
+     * Finds the most recent orders, newest first.
+     *
+     * @param limit the maximum number of orders to return
+     * @return the most recent orders
+     */
+    List<Order> findAllByOrderByCreatedAtDescIdDesc(Limit limit);
+
+    /**
+     * Finds the summaries of the most recent orders, newest first, selecting only the summary columns.
+     *
+     * @param limit the maximum number of orders to return
+     * @return the summaries of the most recent orders
+     */
+    @Query("SELECT new com.cdamayab.flox.ordermanagementservice.OrderSummary(o.id, o.status, o.totalPrice) "
+            + "FROM Order o ORDER BY o.createdAt DESC, o.id DESC")
+    List<OrderSummary> findRecentSummaries(Limit limit);
+
+    /**
+     * Finds the summaries of the given orders.
+     *
+     * @param ids the IDs of the orders
+     * @return the summaries of the existing orders among the IDs
+     */
+    @Query("SELECT new com.cdamayab.flox.ordermanagementservice.OrderSummary(o.id, o.status, o.totalPrice) "
+            + "FROM Order o WHERE o.id IN :ids")
+    List<OrderSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Moves orders from one status to another with a single statement. Only the orders still in
+     * the {@code from} status change.
+     *
+     * @param ids  the IDs of the orders to move
+     * @param from the status the orders must have
+     * @param to   the new status
+     * @param now  the update timestamp
+     * @return the number of moved orders
+     */
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :to, o.updatedAt = :now, o.version = o.version + 1 "
+            + "WHERE o.id IN :ids AND o.status = :from")
+    int transitionStatus(@Param("ids") Collection<Long> ids, @Param("from") OrderStatus from,
+            @Param("to") OrderStatus to, @Param("now") LocalDateTime now);
+
+    /**
+     * Locks the oldest orders of a status created before a cutoff, for archival.
+     * Reads the (status, created_at, id) index in order, so only the locked rows are visited.
+     *
+     * @param status the status of the orders, as stored
+     * @param cutoff only orders created before this time
+     * @param limit  maximum number of orders to lock
+     * @return the IDs of the locked orders
+     */
+    @Query(value = "SELECT id FROM orders WHERE status = :status AND created_at < :cutoff "
+            + "ORDER BY created_at, id LIMIT :limit FOR UPDATE", nativeQuery = true)
+    List<Long> lockArchivable(@Param("status") String status, @Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+
+    /**
+     * Deletes orders with a single statement.
+     *
+     * @param ids the IDs of the orders to delete
+     * @return the number of deleted orders
+     */
+    @Modifying
+    @Query("DELETE FROM Order o WHERE o.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Counts the orders of a customer, sums their total prices and finds the latest one, with one statement.
+     *
+     * @param customerId the ID of the customer
+     * @return the totals of the customer
+     */
+    @Query("SELECT new com.cdamayab.flox.ordermanagementservice.CustomerOrderTotals(COUNT(o), SUM(o.totalPrice), MAX(o.createdAt)) "
+            + "FROM Order o WHERE o.customerId = :customerId")
+    CustomerOrderTotals findCustomerTotals(@Param("customerId") Long customerId);
+
+    /**
+     * Finds the customers of the given orders.
+     *
+     * @param ids the IDs of the orders
+     * @return the distinct customer IDs of the orders
+     */
+    @Query("SELECT DISTINCT o.customerId FROM Order o WHERE o.id IN :ids AND o.customerId IS NOT NULL")
+    List<Long> findCustomerIdsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Sums the total prices of the given orders.
+     *
+     * @param ids the IDs of the orders
+     * @return the sum of their total prices, 0 when none exists
+     */
+    @Query("SELECT COALESCE(SUM(o.totalPrice), 0) FROM Order o WHERE o.id IN :ids")
+    double sumTotalPriceByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Counts the orders and sums their total prices per status.
+     *
+     * @return rows of (status, count, revenue)
+     */
+    @Query("SELECT o.status, COUNT(o), COALESCE(SUM(o.totalPrice), 0) FROM Order o "
+            + "WHERE o.status IS NOT NULL GROUP BY o.status")
+    List<Object[]> sumByStatus();
+
+    /**
+     * Counts the orders and sums their total prices per customer.
+     *
+     * @return rows of (customer ID, count, revenue)
+     */
+    @Query("SELECT o.customerId, COUNT(o), COALESCE(SUM(o.totalPrice), 0) FROM Order o "
+            + "WHERE o.customerId IS NOT NULL GROUP BY o.customerId")
+    List<Object[]> sumByCustomer();
+
+    /**
+     * Counts the orders and sums their total prices per creation day.
+     *
+     * @return rows of (day, count, revenue)
+     */
+    @Query("SELECT cast(o.createdAt as LocalDate), COUNT(o), COALESCE(SUM(o.totalPrice), 0) FROM Order o "
+            + "WHERE o.createdAt IS NOT NULL GROUP BY cast(o.createdAt as LocalDate)")
+    List<Object[]> sumByDay();
 }
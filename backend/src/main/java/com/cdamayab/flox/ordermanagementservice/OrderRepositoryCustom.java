@@ -0,0 +1,53 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import java.util.List;
+
+/**
+ * Custom queries of {@link OrderRepository} that can not be expressed as derived or annotated queries.
+ */
+public interface OrderRepositoryCustom {
+
+    /**
+     * Updates only the non-null fields of {@code changes}, plus the update timestamp,
+     * with a single UPDATE statement that does not load the order entity.
+     * A status change only applies if the current status can move to it.
+     * {@link OrderManagementService#patchOrder(Long, Order)} runs {@link #lockSnapshot(Long)} before it,
+     * so a PATCH costs one locking read of the aggregated columns plus this statement.
+     *
+     * @param id      the ID of the order to update
+     * @param changes the fields to write; null fields are left unchanged
+     * @return the number of updated rows, 0 if the order does not exist or can not move to the new status
+     */
+    int patch(Long id, Order changes);
+
+    /**
+     * Finds the orders matching a query with a single statement built from the filters that are set,
+     * seeking past the given position instead of skipping rows.
+     *
+     * @param query the filters and direction
+     * @param after position of the last order already returned, or null for the first page
+     * @param limit maximum number of orders to return
+     * @return the next matching orders, ordered by (createdAt, id)
+     */
+    List<Order> findPage(OrderQuery query, OrderCursor after, int limit);
+
+    /**
+     * Locks the orders a bulk status transition applies to, in ID order so that concurrent
+     * transitions can not deadlock, and returns their IDs. Only orders currently in the
+     * {@code from} status are locked: the listed ones, or those matching the filter.
+     *
+     * @param transition the transition, with either IDs or a filter
+     * @param limit      maximum number of orders to lock
+     * @return the IDs of the locked orders, ascending
+     */
+    List<Long> lockForTransition(OrderStatusTransition transition, int limit);
+
+    /**
+     * Reads the aggregated fields of an order and locks its row until the end of the transaction,
+     * so the snapshot stays the state the next write to the order starts from.
+     *
+     * @param id the ID of the order
+     * @return the snapshot of the order, or null if it does not exist
+     */
+    OrderSnapshot lockSnapshot(Long id);
+}
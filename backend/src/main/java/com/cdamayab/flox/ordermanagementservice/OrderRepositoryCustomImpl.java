@@ -0,0 +1,140 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Implementation of {@link OrderRepositoryCustom}, picked up by Spring Data as a repository fragment.
+ */
+class OrderRepositoryCustomImpl implements OrderRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int patch(Long id, Order changes) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Order> update = cb.createCriteriaUpdate(Order.class);
+        Root<Order> order = update.from(Order.class);
+
+        if (changes.getCustomerId() != null) update.set(order.<Long>get("customerId"), changes.getCustomerId());
+        if (changes.getTotalPrice() != null) update.set(order.<Double>get("totalPrice"), changes.getTotalPrice());
+        if (changes.getStatus()     != null) update.set(order.<OrderStatus>get("status"), changes.getStatus());
+        update.set(order.<LocalDateTime>get("updatedAt"), LocalDateTime.now());
+        update.set(order.<Long>get("version"), cb.sum(order.<Long>get("version"), 1L));
+
+        if (changes.getStatus() != null) {
+            // Enforce the state machine in the same statement; staying in the same status is allowed
+            Set<OrderStatus> allowed = OrderStatus.predecessorsOf(changes.getStatus());
+            allowed.add(changes.getStatus());
+            update.where(cb.equal(order.get("id"), id), order.get("status").in(allowed));
+        } else {
+            update.where(cb.equal(order.get("id"), id));
+        }
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Long> lockForTransition(OrderStatusTransition transition, int limit) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        conditions.add("status = :from");
+        parameters.put("from", transition.from().name());
+        if (transition.ids() != null && !transition.ids().isEmpty()) {
+            conditions.add("id IN (:ids)");
+            parameters.put("ids", transition.ids());
+        } else {
+            if (transition.customerId() != null) {
+                conditions.add("customer_id = :customerId");
+                parameters.put("customerId", transition.customerId());
+            }
+            if (transition.createdFrom() != null) {
+                conditions.add("created_at >= :createdFrom");
+                parameters.put("createdFrom", transition.createdFrom());
+            }
+            if (transition.createdTo() != null) {
+                conditions.add("created_at < :createdTo");
+                parameters.put("createdTo", transition.createdTo());
+            }
+        }
+        String sql = "SELECT id FROM orders WHERE " + String.join(" AND ", conditions)
+                + " ORDER BY id LIMIT :limit FOR UPDATE";
+        parameters.put("limit", limit);
+
+        Query statement = entityManager.createNativeQuery(sql, Long.class);
+        parameters.forEach(statement::setParameter);
+        return statement.getResultList();
+    }
+
+    @Override
+    public OrderSnapshot lockSnapshot(Long id) {
+        List<?> rows = entityManager.createNativeQuery(
+                        "SELECT id, customer_id, total_price, status, created_at FROM orders WHERE id = :id FOR UPDATE")
+                .setParameter("id", id)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object[] row = (Object[]) rows.get(0);
+        return new OrderSnapshot(
+                ((Number) row[0]).longValue(),
+                row[1] == null ? null : ((Number) row[1]).longValue(),
+                row[2] == null ? null : ((Number) row[2]).doubleValue(),
+                row[3] == null ? null : OrderStatus.valueOf((String) row[3]),
+                row[4] instanceof Timestamp timestamp ? timestamp.toLocalDateTime() : (LocalDateTime) row[4]);
+    }
+
+    @Override
+    public List<Order> findPage(OrderQuery query, OrderCursor after, int limit) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new LinkedHashMap<>();
+
+        if (query.customerId() != null) {
+            conditions.add("o.customerId = :customerId");
+            parameters.put("customerId", query.customerId());
+        }
+        if (query.status() != null) {
+            conditions.add("o.status = :status");
+            parameters.put("status", query.status());
+        }
+        conditions.add("o.createdAt IS NOT NULL");
+        if (query.from() != null) {
+            conditions.add("o.createdAt >= :from");
+            parameters.put("from", query.from());
+        }
+        if (query.to() != null) {
+            conditions.add("o.createdAt < :to");
+            parameters.put("to", query.to());
+        }
+        String direction = query.direction().isAscending() ? "ASC" : "DESC";
+        if (after != null) {
+            String comparison = query.direction().isAscending() ? ">" : "<";
+            conditions.add("o.createdAt " + comparison + "= :afterCreatedAt AND (o.createdAt " + comparison
+                    + " :afterCreatedAt OR o.id " + comparison + " :afterId)");
+            parameters.put("afterCreatedAt", after.createdAt());
+            parameters.put("afterId", after.id());
+        }
+
+        String jpql = "SELECT o FROM Order o WHERE " + String.join(" AND ", conditions)
+                + " ORDER BY o.createdAt " + direction + ", o.id " + direction;
+        TypedQuery<Order> statement = entityManager.createQuery(jpql, Order.class).setMaxResults(limit);
+        parameters.forEach(statement::setParameter);
+        return statement.getResultList();
+    }
+}
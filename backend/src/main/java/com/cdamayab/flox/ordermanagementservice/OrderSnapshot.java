@@ -0,0 +1,31 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import java.time.LocalDateTime;
+
+/**
+ * The fields of an order that the order views aggregate, copied at one point in time.
+ *
+ * @param id         the ID of the order
+ * @param customerId the customer of the order
+ * @param totalPrice the total price of the order
+ * @param status     the status of the order
+ * @param createdAt  the creation time of the order
+ */
+public record OrderSnapshot(Long id, Long customerId, Double totalPrice, OrderStatus status, LocalDateTime createdAt) {
+
+    static OrderSnapshot of(Order order) {
+        return new OrderSnapshot(order.getId(), order.getCustomerId(), order.getTotalPrice(), order.getStatus(), order.getCreatedAt());
+    }
+
+    /**
+     * @param changes fields written by a partial update; null fields kept their value
+     * @return this snapshot with the written fields applied
+     */
+    OrderSnapshot with(Order changes) {
+        return new OrderSnapshot(id,
+                changes.getCustomerId() != null ? changes.getCustomerId() : customerId,
+                changes.getTotalPrice() != null ? changes.getTotalPrice() : totalPrice,
+                changes.getStatus()     != null ? changes.getStatus()     : status,
+                createdAt);
+    }
+}
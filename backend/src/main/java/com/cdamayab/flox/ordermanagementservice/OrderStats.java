@@ -0,0 +1,41 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Order counts and revenue per status, per customer and per creation day.
+ */
+@Schema(description = "Order counts and revenue per status, customer and day")
+public record OrderStats(
+        @Schema(description = "Total number of orders", example = "1520") long totalOrders,
+        @Schema(description = "Sum of the total prices of all orders", example = "8250000.0") double totalRevenue,
+        @Schema(description = "Statistics per status, in lifecycle order") List<StatusStats> byStatus,
+        @Schema(description = "Statistics of the requested customer, or of the customers with the most revenue") List<CustomerStats> byCustomer,
+        @Schema(description = "Statistics per creation day, oldest first") List<DayStats> byDay,
+        @Schema(description = "When the statistics were last checked against the database", example = "2024-12-10T13:30:00") LocalDateTime reconciledAt) {
+
+    @Schema(description = "Number of orders and revenue of a status")
+    public record StatusStats(
+            @Schema(description = "Order status", example = "PENDING") OrderStatus status,
+            @Schema(description = "Number of orders", example = "320") long count,
+            @Schema(description = "Sum of the total prices", example = "1750000.0") double revenue) {
+    }
+
+    @Schema(description = "Number of orders and revenue of a customer")
+    public record CustomerStats(
+            @Schema(description = "Customer ID", example = "12345") Long customerId,
+            @Schema(description = "Number of orders", example = "12") long count,
+            @Schema(description = "Sum of the total prices", example = "96000.0") double revenue) {
+    }
+
+    @Schema(description = "Number of orders and revenue of a creation day")
+    public record DayStats(
+            @Schema(description = "Creation day", example = "2024-12-10") LocalDate day,
+            @Schema(description = "Number of orders", example = "45") long count,
+            @Schema(description = "Sum of the total prices", example = "230000.0") double revenue) {
+    }
+}
@@ -0,0 +1,295 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory order counts and revenue per status, per customer and per creation day, behind
+ * {@code /api/orders/stats}.
+ *
+ * The aggregates are adjusted from the order change events with striped counters, so concurrent
+ * writers do not contend and serving the statistics never touches the orders table. They are
+ * rebuilt from SQL once the application is ready and then periodically, which corrects any drift
+ * (floating-point error, or writes made outside the service). Changes committed while a rebuild
+ * runs are recorded with the ID of their outbox row and replayed on top of it, except the ones whose
+ * row is visible in the snapshot of the rebuild: the SQL totals already count those. This relies on
+ * the repeatable read isolation of MySQL, where the queries of a transaction share one snapshot.
+ */
+@Component
+public class OrderStatsStore {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderStatsStore.class);
+
+    @Autowired
+    private OrderManagementService orderManagementService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate snapshotTransaction;
+
+    private volatile Aggregates aggregates = new Aggregates();
+    private volatile LocalDateTime reconciledAt;
+
+    // Deltas take the read lock, so they run concurrently; a rebuild takes the write lock to swap
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Queue<Delta> pending;
+
+    @PostConstruct
+    void init() {
+        snapshotTransaction = new TransactionTemplate(transactionManager);
+        snapshotTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Rebuilds the aggregates from the orders table.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${flox.orders.stats.reconcile-interval:PT5M}",
+            initialDelayString = "${flox.orders.stats.reconcile-interval:PT5M}")
+    public synchronized void reconcile() {
+        lock.writeLock().lock();
+        try {
+            pending = new ConcurrentLinkedQueue<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        try {
+            snapshotTransaction.executeWithoutResult(status -> rebuild());
+        } catch (RuntimeException e) {
+            log.warn("Order statistics reconciliation failed", e);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Computes the aggregates in the current transaction and swaps them in. Its first query takes the
+     * snapshot, so every change missing from it was committed after the recording started.
+     */
+    private void rebuild() {
+        OrderStats stats = orderManagementService.computeOrderStats();
+        Aggregates rebuilt = new Aggregates();
+        stats.byStatus().forEach(row -> rebuilt.byStatus.put(row.status(), new Totals(row.count(), row.revenue())));
+        stats.byCustomer().forEach(row -> rebuilt.byCustomer.put(row.customerId(), new Totals(row.count(), row.revenue())));
+        stats.byDay().forEach(row -> rebuilt.byDay.put(row.day(), new Totals(row.count(), row.revenue())));
+        replay(rebuilt, drainPending());
+
+        lock.writeLock().lock();
+        try {
+            // The changes committed since the first replay, usually none
+            replay(rebuilt, drainPending());
+            long previousCount = count(aggregates.byStatus);
+            if (reconciledAt != null && previousCount != count(rebuilt.byStatus)) {
+                log.info("Order statistics drifted: {} orders counted, {} after reconciliation",
+                        previousCount, count(rebuilt.byStatus));
+            }
+            aggregates = rebuilt;
+            reconciledAt = stats.reconciledAt();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<Delta> drainPending() {
+        List<Delta> deltas = new ArrayList<>();
+        for (Delta delta; (delta = pending.poll()) != null; ) {
+            deltas.add(delta);
+        }
+        return deltas;
+    }
+
+    /**
+     * Applies the recorded deltas the snapshot does not count yet.
+     */
+    private void replay(Aggregates rebuilt, List<Delta> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Set<Long> counted = orderManagementService.findVisibleOrderChanges(
+                deltas.stream().map(Delta::changeId).filter(Objects::nonNull).distinct().toList());
+        deltas.stream()
+                .filter(delta -> delta.changeId() == null || !counted.contains(delta.changeId()))
+                .forEach(rebuilt::apply);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        List<Delta> deltas = new ArrayList<>(2);
+        if (event.before() != null) {
+            deltas.add(Delta.of(event.before(), -1, event.changeId()));
+        }
+        if (event.after() != null) {
+            deltas.add(Delta.of(event.after(), 1, event.changeId()));
+        }
+        apply(deltas);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrdersTransitioned(OrdersTransitionedEvent event) {
+        long count = event.ids().size();
+        apply(List.of(
+                new Delta(event.from(), null, null, -count, -event.totalPrice(), event.changeId()),
+                new Delta(event.to(), null, null, count, event.totalPrice(), event.changeId())));
+    }
+
+    /**
+     * Reads the current statistics from memory.
+     *
+     * @param customerId only report this customer, or null for the customers with the most revenue
+     * @param top        number of customers to report when no customer is given
+     * @param from       first creation day to report, or null for no lower bound
+     * @param to         last creation day to report, or null for no upper bound
+     * @return the statistics; empty until the first reconciliation has run
+     * @throws IllegalArgumentException if the number of customers is out of range
+     */
+    public OrderStats getStats(Long customerId, int top, LocalDate from, LocalDate to) {
+        if (top < 0 || top > OrderManagementService.MAX_LIST_LIMIT) {
+            throw new IllegalArgumentException("Top must be between 0 and " + OrderManagementService.MAX_LIST_LIMIT + ".");
+        }
+        Aggregates current = aggregates;
+
+        List<OrderStats.StatusStats> byStatus = new ArrayList<>();
+        long totalOrders = 0;
+        double totalRevenue = 0;
+        for (OrderStatus status : OrderStatus.values()) {
+            Totals totals = current.byStatus.get(status);
+            if (totals != null && totals.count.sum() > 0) {
+                byStatus.add(new OrderStats.StatusStats(status, totals.count.sum(), totals.revenue.sum()));
+                totalOrders += totals.count.sum();
+                totalRevenue += totals.revenue.sum();
+            }
+        }
+
+        List<OrderStats.CustomerStats> byCustomer = new ArrayList<>();
+        if (customerId != null) {
+            Totals totals = current.byCustomer.get(customerId);
+            if (totals != null && totals.count.sum() > 0) {
+                byCustomer.add(new OrderStats.CustomerStats(customerId, totals.count.sum(), totals.revenue.sum()));
+            }
+        } else if (top > 0) {
+            // Keep the best customers in a min-heap of size top instead of sorting them all
+            Comparator<OrderStats.CustomerStats> byRevenue = Comparator
+                    .comparingDouble(OrderStats.CustomerStats::revenue)
+                    .thenComparing(OrderStats.CustomerStats::customerId, Comparator.reverseOrder());
+            PriorityQueue<OrderStats.CustomerStats> best = new PriorityQueue<>(top + 1, byRevenue);
+            current.byCustomer.forEach((id, totals) -> {
+                if (totals.count.sum() > 0) {
+                    best.add(new OrderStats.CustomerStats(id, totals.count.sum(), totals.revenue.sum()));
+                    if (best.size() > top) {
+                        best.poll();
+                    }
+                }
+            });
+            byCustomer.addAll(best);
+            byCustomer.sort(byRevenue.reversed());
+        }
+
+        List<OrderStats.DayStats> byDay = new ArrayList<>();
+        current.byDay.forEach((day, totals) -> {
+            if ((from == null || !day.isBefore(from)) && (to == null || !day.isAfter(to)) && totals.count.sum() > 0) {
+                byDay.add(new OrderStats.DayStats(day, totals.count.sum(), totals.revenue.sum()));
+            }
+        });
+        byDay.sort(Comparator.comparing(OrderStats.DayStats::day));
+
+        return new OrderStats(totalOrders, totalRevenue, byStatus, byCustomer, byDay, reconciledAt);
+    }
+
+    private void apply(List<Delta> deltas) {
+        lock.readLock().lock();
+        try {
+            Aggregates current = aggregates;
+            for (Delta delta : deltas) {
+                current.apply(delta);
+                if (pending != null) {
+                    pending.add(delta);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long count(Map<?, Totals> totals) {
+        return totals.values().stream().mapToLong(t -> t.count.sum()).sum();
+    }
+
+    /**
+     * A change of one order, or of many orders in the same status, to add to every aggregate it has a key for,
+     * with the ID of the outbox row written in the same transaction.
+     */
+    private record Delta(OrderStatus status, Long customerId, LocalDate day, long count, double revenue, Long changeId) {
+        static Delta of(OrderSnapshot order, int sign, Long changeId) {
+            double revenue = order.totalPrice() == null ? 0 : order.totalPrice();
+            return new Delta(order.status(), order.customerId(),
+                    order.createdAt() == null ? null : order.createdAt().toLocalDate(), sign, sign * revenue, changeId);
+        }
+    }
+
+    private static final class Aggregates {
+        final Map<OrderStatus, Totals> byStatus = new ConcurrentHashMap<>();
+        final Map<Long, Totals> byCustomer = new ConcurrentHashMap<>();
+        final Map<LocalDate, Totals> byDay = new ConcurrentHashMap<>();
+
+        void apply(Delta delta) {
+            if (delta.status != null) {
+                byStatus.computeIfAbsent(delta.status, key -> new Totals()).add(delta.count, delta.revenue);
+            }
+            if (delta.customerId != null) {
+                byCustomer.computeIfAbsent(delta.customerId, key -> new Totals()).add(delta.count, delta.revenue);
+            }
+            if (delta.day != null) {
+                byDay.computeIfAbsent(delta.day, key -> new Totals()).add(delta.count, delta.revenue);
+            }
+        }
+    }
+
+    private static final class Totals {
+        final LongAdder count = new LongAdder();
+        final DoubleAdder revenue = new DoubleAdder();
+
+        Totals() {
+        }
+
+        Totals(long count, double revenue) {
+            add(count, revenue);
+        }
+
+        void add(long count, double revenue) {
+            this.count.add(count);
+            this.revenue.add(revenue);
+        }
+    }
+}
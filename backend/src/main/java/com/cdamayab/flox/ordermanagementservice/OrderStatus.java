@@ -0,0 +1,60 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Lifecycle of an order: PENDING → PAID → SHIPPED → COMPLETED, with CANCELLED possible
+ * until the order ships. COMPLETED and CANCELLED are final.
+ */
+@Schema(description = "Status of an order")
+public enum OrderStatus {
+    PENDING,
+    PAID,
+    SHIPPED,
+    COMPLETED,
+    CANCELLED;
+
+    /**
+     * @return the statuses an order in this status can move to
+     */
+    public Set<OrderStatus> next() {
+        return switch (this) {
+            case PENDING -> EnumSet.of(PAID, CANCELLED);
+            case PAID -> EnumSet.of(SHIPPED, CANCELLED);
+            case SHIPPED -> EnumSet.of(COMPLETED);
+            case COMPLETED, CANCELLED -> EnumSet.noneOf(OrderStatus.class);
+        };
+    }
+
+    /**
+     * @return true if an order in this status can not move anymore
+     */
+    public boolean isFinal() {
+        return next().isEmpty();
+    }
+
+    /**
+     * @param target the status to move to
+     * @return true if an order in this status can move to the target
+     */
+    public boolean canTransitionTo(OrderStatus target) {
+        return next().contains(target);
+    }
+
+    /**
+     * @param target the status to move to
+     * @return the statuses from which an order can move to the target
+     */
+    public static Set<OrderStatus> predecessorsOf(OrderStatus target) {
+        Set<OrderStatus> predecessors = EnumSet.noneOf(OrderStatus.class);
+        for (OrderStatus status : values()) {
+            if (status.canTransitionTo(target)) {
+                predecessors.add(status);
+            }
+        }
+        return predecessors;
+    }
+}
@@ -0,0 +1,19 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A status change to apply to many orders: either the listed orders, or the orders matching the filter.
+ */
+@Schema(description = "Status change applied to a list of orders, or to the orders matching a filter when no IDs are given; the filter must set at least one field")
+public record OrderStatusTransition(
+        @Schema(description = "Status the orders must currently have", example = "PAID") OrderStatus from,
+        @Schema(description = "Status to move the orders to", example = "SHIPPED") OrderStatus to,
+        @Schema(description = "IDs of the orders to move; when omitted the filter below is used", example = "[1, 2, 3]") List<Long> ids,
+        @Schema(description = "Filter: only orders of this customer", example = "12345") Long customerId,
+        @Schema(description = "Filter: only orders created at or after this time", example = "2024-12-01T00:00:00") LocalDateTime createdFrom,
+        @Schema(description = "Filter: only orders created before this time", example = "2025-01-01T00:00:00") LocalDateTime createdTo) {
+}
@@ -0,0 +1,31 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk status transition.
+ */
+@Schema(description = "Orders moved by a bulk status transition, and the ones rejected with the reason")
+public record OrderStatusTransitionResult(
+        @Schema(description = "Status the orders were moved from", example = "PAID") OrderStatus from,
+        @Schema(description = "Status the orders were moved to", example = "SHIPPED") OrderStatus to,
+        @Schema(description = "IDs of the orders moved", example = "[1, 3]") List<Long> moved,
+        @Schema(description = "Requested orders that were not moved") List<Rejection> rejected,
+        @Schema(description = "True when the filter matched more orders than one transition moves; repeat the request to move the next ones", example = "false") boolean hasMore) {
+
+    /**
+     * A requested order that was not moved.
+     *
+     * @param id            ID of the order
+     * @param currentStatus status of the order, null if it does not exist
+     * @param reason        why the order was not moved
+     */
+    @Schema(description = "Order that was not moved")
+    public record Rejection(
+            @Schema(description = "ID of the order", example = "2") Long id,
+            @Schema(description = "Current status of the order, null if it does not exist", example = "PENDING") OrderStatus currentStatus,
+            @Schema(description = "Why the order was not moved", example = "Order is PENDING, not PAID.") String reason) {
+    }
+}
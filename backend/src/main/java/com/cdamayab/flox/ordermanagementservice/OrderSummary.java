@@ -0,0 +1,14 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Narrow read-only view of an order for list screens, selected directly into this record
+ * without loading {@link Order} entities.
+ */
+@Schema(description = "Summary of an order: identifier, status and total price")
+public record OrderSummary(
+        @Schema(description = "Unique identifier for the order", example = "1") Long id,
+        @Schema(description = "Status of the order", example = "PENDING") OrderStatus status,
+        @Schema(description = "Total price of the order", example = "350000.00") Double totalPrice) {
+}
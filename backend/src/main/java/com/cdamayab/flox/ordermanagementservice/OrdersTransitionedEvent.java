@@ -0,0 +1,18 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import java.util.Collection;
+
+/**
+ * Published by {@link OrderManagementService} after a bulk status transition.
+ * Only the status of the orders changed.
+ *
+ * @param ids         IDs of the moved orders
+ * @param customerIds customers of the moved orders
+ * @param from        the previous status of the orders
+ * @param to          the new status of the orders
+ * @param totalPrice  sum of the total prices of the moved orders
+ * @param changeId    ID of one of the outbox rows written with the change; they are committed together
+ */
+public record OrdersTransitionedEvent(Collection<Long> ids, Collection<Long> customerIds, OrderStatus from, OrderStatus to, double totalPrice,
+        Long changeId) {
+}
@@ -0,0 +1,18 @@
+package com.cdamayab.flox.productcatalogservice;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * A product whose stock crossed its low-stock threshold, or that is currently below it.
+ */
+@Schema(description = "Product whose stock is, or just stopped being, below its low-stock threshold")
+public record LowStockAlert(
+        @Schema(description = "Unique identifier of the product", example = "4") Long productId,
+        @Schema(description = "Name of the product", example = "escritorio") String name,
+        @Schema(description = "Category of the product", example = "Muebles") String category,
+        @Schema(description = "Current stock of the product", example = "3") Float stock,
+        @Schema(description = "Threshold that applies to the product", example = "10") Float threshold,
+        @Schema(description = "LOW when the stock fell below the threshold, RESTOCKED when it went back above it", example = "LOW") State state) {
+
+    public enum State { LOW, RESTOCKED }
+}
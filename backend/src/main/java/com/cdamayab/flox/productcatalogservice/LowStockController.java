@@ -0,0 +1,49 @@
+package com.cdamayab.flox.productcatalogservice;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/products/low-stock")
+public class LowStockController {
+
+    @Autowired
+    private LowStockMonitor lowStockMonitor;
+
+    @Operation(summary = "Retrieve low-stock products", description = "Fetch the products currently below their low-stock threshold, lowest stock first. Use it as the initial state before subscribing to the stream.")
+    @ApiResponse(responseCode = "200", description = "Low-stock products retrieved successfully")
+    @GetMapping
+    public List<LowStockAlert> getLowStockProducts() {
+        return lowStockMonitor.getLowStockProducts();
+    }
+
+    @Operation(summary = "Stream low-stock alerts", description = "Server-Sent Events stream with a 'low-stock' event each time a product falls below its threshold (LOW) or goes back above it (RESTOCKED).")
+    @ApiResponse(responseCode = "200", description = "Alert stream opened", content = @Content(mediaType = "text/event-stream"))
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamLowStockAlerts() {
+        return lowStockMonitor.subscribe();
+    }
+
+    @Operation(summary = "Retrieve low-stock thresholds", description = "Fetch the global threshold and the per-category thresholds.")
+    @ApiResponse(responseCode = "200", description = "Thresholds retrieved successfully")
+    @GetMapping("/thresholds")
+    public LowStockThresholds getThresholds() {
+        return lowStockMonitor.getThresholds();
+    }
+
+    @Operation(summary = "Update low-stock thresholds", description = "Replace the per-category thresholds and, when given, the global threshold.")
+    @ApiResponse(responseCode = "200", description = "Thresholds updated successfully")
+    @PutMapping("/thresholds")
+    public LowStockThresholds updateThresholds(
+            @RequestBody @Schema(description = "New thresholds") LowStockThresholds thresholds) {
+        return lowStockMonitor.setThresholds(thresholds);
+    }
+}
@@ -0,0 +1,318 @@
+package com.cdamayab.flox.productcatalogservice;
+
+import com.cdamayab.flox.common.SseStream;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Watches product stock and pushes an alert to the subscribed clients whenever a product falls
+ * below its low-stock threshold or goes back above it.
+ *
+ * Products are kept in memory ordered by stock (a sorted set acting as an updatable min-heap),
+ * so the current low-stock list is read from the front of the set instead of scanning the table.
+ * The set is seeded once the application is ready and fed by the product change events, which
+ * cover creations, updates, bulk adjustments and stock reservations.
+ *
+ * Alerts are queued per subscriber and sent by a small pool of sender threads, so the request
+ * thread committing a stock change never waits on a client.
+ */
+@Component
+public class LowStockMonitor {
+
+    private static final Comparator<Entry> BY_STOCK = Comparator
+            .comparingDouble(Entry::stock)
+            .thenComparingLong(Entry::id);
+
+    @Autowired
+    private ProductCatalogService productCatalogService;
+
+    @Value("${flox.products.low-stock.threshold:10}")
+    private float defaultThreshold;
+
+    @Value("${flox.products.low-stock.stream-timeout:PT30M}")
+    private Duration streamTimeout;
+
+    @Value("${flox.products.low-stock.stream-senders:4}")
+    private int streamSenders;
+
+    @Value("${flox.products.low-stock.stream-capacity:1000}")
+    private int streamCapacity;
+
+    // Guarded by this
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final TreeSet<Entry> byStock = new TreeSet<>(BY_STOCK);
+    private final Map<String, Float> categoryThresholds = new HashMap<>();
+    private final Set<Long> changedDuringBuild = new HashSet<>();
+    private final Set<Long> reloadAfterBuild = new HashSet<>();
+    private boolean ready;
+
+    private final List<SseStream> streams = new CopyOnWriteArrayList<>();
+    private ExecutorService senders;
+
+    @PostConstruct
+    void start() {
+        senders = SseStream.newSenderPool("low-stock-alerts", streamSenders);
+    }
+
+    @PreDestroy
+    void stop() {
+        streams.forEach(SseStream::close);
+        senders.shutdownNow();
+    }
+
+    /**
+     * Loads the stock of every product. No alerts are sent for the initial state; clients
+     * read it from {@link #getLowStockProducts()}.
+     *
+     * Products written with a complete row while the build is running are taken from their change
+     * events and skipped here. Partial updates and stock adjustments of products not loaded yet can
+     * not be applied; those products are read again once the scan is over, until none is left.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        productCatalogService.forEachProduct(product -> {
+            synchronized (this) {
+                if (!changedDuringBuild.contains(product.getId())) {
+                    load(product);
+                }
+            }
+        });
+        while (true) {
+            List<Long> ids;
+            synchronized (this) {
+                ids = new ArrayList<>(reloadAfterBuild);
+                reloadAfterBuild.clear();
+                if (ids.isEmpty()) {
+                    changedDuringBuild.clear();
+                    ready = true;
+                    return;
+                }
+            }
+            List<Product> rows = productCatalogService.getProductsByIds(ids);
+            synchronized (this) {
+                for (Product row : rows) {
+                    if (!changedDuringBuild.contains(row.getId())) {
+                        load(row);
+                    }
+                }
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Product changes = event.product();
+        List<LowStockAlert> alerts = new ArrayList<>();
+        boolean readRow = false;
+        synchronized (this) {
+            Entry previous = entries.get(changes.getId());
+            if (event.complete()) {
+                if (!ready) {
+                    changedDuringBuild.add(changes.getId());
+                }
+                if (changes.getStock() == null) {
+                    remove(changes.getId());
+                } else {
+                    replace(previous, new Entry(changes.getId(), changes.getName(), changes.getCategory(), changes.getStock()), alerts);
+                }
+            } else if (previous != null) {
+                replace(previous, new Entry(changes.getId(),
+                        changes.getName()     != null ? changes.getName()     : previous.name,
+                        changes.getCategory() != null ? changes.getCategory() : previous.category,
+                        changes.getStock()    != null ? changes.getStock()    : previous.stock), alerts);
+            } else if (!ready) {
+                reloadAfterBuild.add(changes.getId());
+            } else if (changes.getStock() != null) {
+                readRow = true; // A product created without stock gets one; its name and category are read below
+            }
+        }
+        if (readRow) {
+            for (Product row : productCatalogService.getProductsByIds(List.of(changes.getId()))) {
+                if (row.getStock() != null) {
+                    synchronized (this) {
+                        replace(entries.get(row.getId()), new Entry(row.getId(), row.getName(), row.getCategory(), row.getStock()), alerts);
+                    }
+                }
+            }
+        }
+        publish(alerts);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsAdjusted(ProductsAdjustedEvent event) {
+        if (event.stockDelta() == 0f) {
+            return;
+        }
+        List<LowStockAlert> alerts = new ArrayList<>();
+        synchronized (this) {
+            for (Long id : event.ids()) {
+                Entry previous = entries.get(id);
+                if (previous == null && !ready) {
+                    reloadAfterBuild.add(id);
+                } else if (previous != null) {
+                    float stock = Math.max(0f, previous.stock + event.stockDelta());
+                    replace(previous, new Entry(id, previous.name, previous.category, stock), alerts);
+                }
+            }
+        }
+        publish(alerts);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductsDeleted(ProductsDeletedEvent event) {
+        for (Long id : event.ids()) {
+            if (!ready) {
+                changedDuringBuild.add(id);
+            }
+            remove(id);
+        }
+    }
+
+    /**
+     * Products currently below their threshold, lowest stock first.
+     * Only the front of the stock-ordered set is visited, up to the highest threshold in use.
+     *
+     * @return the low-stock products
+     */
+    public synchronized List<LowStockAlert> getLowStockProducts() {
+        float highestThreshold = defaultThreshold;
+        for (float threshold : categoryThresholds.values()) {
+            highestThreshold = Math.max(highestThreshold, threshold);
+        }
+        List<LowStockAlert> low = new ArrayList<>();
+        for (Entry entry : byStock) {
+            if (entry.stock >= highestThreshold) {
+                break;
+            }
+            float threshold = thresholdOf(entry.category);
+            if (entry.stock < threshold) {
+                low.add(entry.alert(threshold, LowStockAlert.State.LOW));
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the thresholds currently in use
+     */
+    public synchronized LowStockThresholds getThresholds() {
+        return new LowStockThresholds(defaultThreshold, Map.copyOf(categoryThresholds));
+    }
+
+    /**
+     * Replace the thresholds. Products that cross a threshold because of the change are not alerted;
+     * they show up in {@link #getLowStockProducts()}.
+     *
+     * @param thresholds new global threshold (kept if null) and per-category thresholds
+     * @return the thresholds now in use
+     * @throws IllegalArgumentException If a threshold is negative.
+     */
+    public synchronized LowStockThresholds setThresholds(LowStockThresholds thresholds) {
+        Map<String, Float> categories = thresholds.categories() == null ? Map.of() : thresholds.categories();
+        if ((thresholds.defaultThreshold() != null && thresholds.defaultThreshold() < 0)
+                || categories.values().stream().anyMatch(threshold -> threshold == null || threshold < 0)) {
+            throw new IllegalArgumentException("Low-stock thresholds cannot be negative.");
+        }
+        if (thresholds.defaultThreshold() != null) {
+            defaultThreshold = thresholds.defaultThreshold();
+        }
+        categoryThresholds.clear();
+        categoryThresholds.putAll(categories);
+        return getThresholds();
+    }
+
+    /**
+     * Open a Server-Sent Events stream of low-stock alerts.
+     *
+     * @return the emitter the alerts are sent to
+     */
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(streamTimeout.toMillis());
+        SseStream stream = new SseStream(emitter, senders, streamCapacity);
+        emitter.onCompletion(() -> streams.remove(stream));
+        emitter.onTimeout(() -> streams.remove(stream));
+        emitter.onError(error -> streams.remove(stream));
+        streams.add(stream);
+        return emitter;
+    }
+
+    // Called with the monitor held
+
+    private void load(Product product) {
+        remove(product.getId());
+        if (product.getStock() != null) {
+            put(new Entry(product.getId(), product.getName(), product.getCategory(), product.getStock()));
+        }
+    }
+
+    private void remove(Long id) {
+        Entry previous = entries.remove(id);
+        if (previous != null) {
+            byStock.remove(previous);
+        }
+    }
+
+    private void put(Entry entry) {
+        entries.put(entry.id, entry);
+        byStock.add(entry);
+    }
+
+    private void replace(Entry previous, Entry current, List<LowStockAlert> alerts) {
+        if (previous != null) {
+            byStock.remove(previous);
+        }
+        put(current);
+
+        float threshold = thresholdOf(current.category);
+        boolean wasLow = previous != null && previous.stock < thresholdOf(previous.category);
+        boolean isLow = current.stock < threshold;
+        if (isLow && !wasLow) {
+            alerts.add(current.alert(threshold, LowStockAlert.State.LOW));
+        } else if (wasLow && !isLow) {
+            alerts.add(current.alert(threshold, LowStockAlert.State.RESTOCKED));
+        }
+    }
+
+    private float thresholdOf(String category) {
+        Float threshold = category == null ? null : categoryThresholds.get(category);
+        return threshold != null ? threshold : defaultThreshold;
+    }
+
+    /**
+     * Queue alerts for every subscriber, outside the monitor; the sends happen on the sender threads.
+     */
+    private void publish(List<LowStockAlert> alerts) {
+        for (LowStockAlert alert : alerts) {
+            for (SseStream stream : streams) {
+                if (!stream.send(SseEmitter.event().name("low-stock").data(alert))) {
+                    streams.remove(stream);
+                }
+            }
+        }
+    }
+
+    private record Entry(long id, String name, String category, float stock) {
+        LowStockAlert alert(float threshold, LowStockAlert.State state) {
+            return new LowStockAlert(id, name, category, stock, threshold, state);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.cdamayab.flox.productcatalogservice;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.Map;
+
+/**
+ * Stock levels under which products are reported as running low.
+ */
+@Schema(description = "Low-stock thresholds, global and per category")
+public record LowStockThresholds(
+        @Schema(description = "Threshold for categories without their own", example = "10") Float defaultThreshold,
+        @Schema(description = "Thresholds per category", example = "{\"Muebles\": 5}") Map<String, Float> categories) {
+}
@@ -1,13 +1,29 @@
 package com.cdamayab.flox.productcatalogservice;
 
 import com.cdamayab.flox.common.*;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 
 @Entity
+@Table(indexes = {
+    // Keyset pagination: every listing seeks on (price, id), optionally after an equality filter
+    @Index(name = "idx_product_price_id",          columnList = "price, id"),
+    @Index(name = "idx_product_category_price_id", columnList = "category, price, id"),
+    @Index(name = "idx_product_supplier_price_id", columnList = "supplier, price, id"),
+    // Product query: the remaining common filter and sort combinations
+    @Index(name = "idx_product_category_supplier_price_id", columnList = "category, supplier, price, id"),
+    @Index(name = "idx_product_name_id",           columnList = "name, id"),
+    @Index(name = "idx_product_stock_id",          columnList = "stock, id"),
+    @Index(name = "idx_product_category_stock_id", columnList = "category, stock, id")
+})
 @Schema(description = "Represents a product in the catalog, including details like stock, price, and supplier information.")
 public class Product extends BaseEntity  {
 
@@ -34,6 +50,12 @@ public class Product extends BaseEntity  {
     @Schema(description = "Category under which the product is classified", example = "Audio Equipment")
     private String category;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0 not null")
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    @Schema(description = "Version of the product, incremented on every change and exposed as its ETag", example = "3", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
+
     // Getters and Setters
 
     public Long getId()             { return id; }
@@ -43,6 +65,7 @@ public class Product extends BaseEntity  {
     public Float getPrice()         { return price; }
     public String getSupplier()     { return supplier; }
     public String getCategory()     { return category; }
+    public Long getVersion()        { return version; }
 
     public void setId(Long id)                      { this.id = id; }
     public void setName(String name)                { this.name = name; }
@@ -51,4 +74,5 @@ public class Product extends BaseEntity  {
     public void setPrice(Float price)               { this.price = price; }
     public void setSupplier(String supplier)        { this.supplier = supplier; }
     public void setCategory(String category)        { this.category = category; }
+    public void setVersion(Long version)            { this.version = version; }
 }
@@ -1,16 +1,32 @@
 package com.cdamayab.flox.productcatalogservice;
 
+import com.cdamayab.flox.common.BulkOperationResult;
+import com.cdamayab.flox.common.CacheStats;
+import com.cdamayab.flox.common.CursorPage;
+import com.cdamayab.flox.common.EntityTags;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.data.domain.Sort;
 
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Locale;
 
 @RestController
 @RequestMapping("/api/products")
@@ -19,6 +35,15 @@ public class ProductCatalogController {
     @Autowired
     private ProductCatalogService productCatalogService;
 
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductFacetStore productFacetStore;
+
     // CRUD
 
     @Operation(summary = "Create a new product", description = "Add a new product to the catalog.")
@@ -32,58 +57,241 @@ public class ProductCatalogController {
     @Operation(summary = "Retrieve all products", description = "Fetch a list of all products in the catalog, sorted by a specified direction.")
     @ApiResponse(responseCode = "200", description = "List of products retrieved successfully")
     @GetMapping
-    public List<Product> getAllProducts(
-            @RequestParam(defaultValue = "ASC") @Schema(description = "Sorting direction: ASC for ascending or DESC for descending", example = "ASC") String direction) {
+    public ResponseEntity<List<Product>> getAllProducts(
+            @RequestParam(defaultValue = "ASC") @Schema(description = "Sorting direction: ASC for ascending or DESC for descending", example = "ASC") String direction,
+            WebRequest request) {
         Sort.Direction sortDirection = Sort.Direction.fromString(direction);
-        return productCatalogService.getAllProducts(sortDirection);
+        return EntityTags.conditionalGet(request, productCatalogService.getCatalogETag(),
+                () -> productCatalogService.getAllProducts(sortDirection));
+    }
+
+    @Operation(summary = "Retrieve summaries of all products", description = "Fetch the ID, name, price and stock of every product, sorted by price. Lighter than the full listing: only those columns are read.")
+    @ApiResponse(responseCode = "200", description = "List of product summaries retrieved successfully")
+    @GetMapping(params = {"view=summary", "!size"})
+    public ResponseEntity<List<ProductSummary>> getAllProductSummaries(
+            @RequestParam(defaultValue = "ASC") @Schema(description = "Sorting direction: ASC for ascending or DESC for descending", example = "ASC") String direction,
+            WebRequest request) {
+        Sort.Direction sortDirection = Sort.Direction.fromString(direction);
+        return EntityTags.conditionalGet(request, productCatalogService.getCatalogETag(),
+                () -> productCatalogService.getAllProductSummaries(sortDirection));
+    }
+
+    @Operation(summary = "Retrieve a page of products", description = "Fetch one page of products sorted by price, using an opaque cursor returned by the previous page.")
+    @ApiResponse(responseCode = "200", description = "Page of products retrieved successfully")
+    @GetMapping(params = "size")
+    public ResponseEntity<CursorPage<Product>> getProductsPage(
+            @RequestParam(defaultValue = "ASC") @Schema(description = "Sorting direction: ASC for ascending or DESC for descending", example = "ASC") String direction,
+            @RequestParam @Schema(description = "Maximum number of products in the page", example = "50") int size,
+            @RequestParam(required = false) @Schema(description = "Cursor returned by the previous page, omitted for the first page") String cursor,
+            WebRequest request) {
+        Sort.Direction sortDirection = Sort.Direction.fromString(direction);
+        return EntityTags.conditionalGet(request, productCatalogService.getCatalogETag(),
+                () -> productCatalogService.getProductsPage(sortDirection, cursor, size));
+    }
+
+    @Operation(summary = "Export the whole catalog", description = "Stream every product as newline-delimited JSON, one product per line, ordered by ID.")
+    @ApiResponse(responseCode = "200", description = "Catalog export started", content = @Content(mediaType = "application/x-ndjson"))
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportProducts() {
+        StreamingResponseBody body = productCatalogService::exportProducts;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @Operation(summary = "Retrieve a product by ID", description = "Fetch details of a product by its unique ID.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Product retrieved successfully"),
+        @ApiResponse(responseCode = "304", description = "Product not modified since the version in If-None-Match", content = @Content),
         @ApiResponse(responseCode = "404", description = "Product not found", content = @Content)
     })
     @GetMapping("/{id}")
-    public Product getProductById(
+    public ResponseEntity<Product> getProductById(
             @PathVariable @Schema(description = "ID of the product to retrieve", example = "1") Long id) {
-        return productCatalogService.getProductById(id);
+        Product product = productCatalogService.getProductById(id);
+        // A matching If-None-Match is answered with 304 before the body is serialized
+        return ResponseEntity.ok()
+                .eTag(EntityTags.of(product.getVersion()))
+                .cacheControl(CacheControl.noCache())
+                .body(product);
+    }
+
+    @Operation(summary = "Product cache statistics", description = "Fetch hit, miss and eviction counters of the product cache.")
+    @ApiResponse(responseCode = "200", description = "Cache statistics retrieved successfully")
+    @GetMapping("/cache/stats")
+    public CacheStats getProductCacheStats() {
+        return productCatalogService.getProductCacheStats();
+    }
+
+    @Operation(summary = "Search products by name", description = "Fetch the products whose name best matches the query, ranked by relevance. Matches substrings and tolerates accents and case differences.")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Matching products retrieved successfully"),
+            @ApiResponse(responseCode = "400", description = "Limit lower than 1", content = @Content)
+    })
+    @GetMapping("/search")
+    public List<ProductSearchHit> searchProducts(
+            @RequestParam @Schema(description = "Text to search for in product names", example = "headph") String query,
+            @RequestParam(defaultValue = "20") @Schema(description = "Maximum number of results, capped at the maximum page size", example = "20") int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1.");
+        }
+        return productSearchIndex.search(query, Math.min(limit, ProductCatalogService.MAX_PAGE_SIZE));
+    }
+
+    @Operation(summary = "Retrieve catalog facets", description = "Fetch the number of products per category and per supplier, with min/max/average price per category. Served from in-memory aggregates.")
+    @ApiResponse(responseCode = "200", description = "Facets retrieved successfully")
+    @GetMapping("/facets")
+    public ProductFacets getProductFacets() {
+        return productFacetStore.getFacets();
     }
 
     @Operation(summary = "Retrieve products by category", description = "Fetch all products belonging to a specific category.")
     @ApiResponse(responseCode = "200", description = "List of products retrieved successfully")
     @GetMapping("/category/{category}")
-    public List<Product> getProductsByCategory(
-            @PathVariable @Schema(description = "Category of the products to retrieve", example = "Electronics") String category) {
-        return productCatalogService.getProductsByCategory(category);
+    public ResponseEntity<List<Product>> getProductsByCategory(
+            @PathVariable @Schema(description = "Category of the products to retrieve", example = "Electronics") String category,
+            WebRequest request) {
+        return EntityTags.conditionalGet(request, productCatalogService.getCatalogETag(),
+                () -> productCatalogService.getProductsByCategory(category));
+    }
+
+    @Operation(summary = "Retrieve summaries of products by category", description = "Fetch the ID, name, price and stock of the products of a category. Only those columns are read.")
+    @ApiResponse(responseCode = "200", description = "List of product summaries retrieved successfully")
+    @GetMapping(value = "/category/{category}", params = {"view=summary", "!size"})
+    public ResponseEntity<List<ProductSummary>> getProductSummariesByCategory(
+            @PathVariable @Schema(description = "Category of the products to retrieve", example = "Electronics") String category,
+            WebRequest request) {
+        return EntityTags.conditionalGet(request, productCatalogService.getCatalogETag(),
+                () -> productCatalogService.getProductSummariesByCategory(category));
+    }
+
+    @Operation(summary = "Retrieve a page of products by category", description = "Fetch one page of the products of a category sorted by price, using an opaque cursor returned by the previous page.")
+    @ApiResponse(responseCode = "200", description = "Page of products retrieved successfully")
+    @GetMapping(value = "/category/{category}", params = "size")
+    public ResponseEntity<CursorPage<Product>> getProductsByCategoryPage(
+            @PathVariable @Schema(description = "Category of the products to retrieve", example = "Electronics") String category,
+            @RequestParam @Schema(description = "Maximum number of products in the page", example = "50") int size,
+            @RequestParam(required = false) @Schema(description = "Cursor returned by the previous page, omitted for the first page") String cursor,
+            WebRequest request) {
+        return EntityTags.conditionalGet(request, productCatalogService.getCatalogETag(),
+                () -> productCatalogService.getProductsByCategoryPage(category, cursor, size));
     }
 
     @Operation(summary = "Retrieve products by supplier", description = "Fetch all products supplied by a specific supplier.")
     @ApiResponse(responseCode = "200", description = "List of products retrieved successfully")
     @GetMapping("/supplier/{supplier}")
-    public List<Product> getProductsBySupplier(
-            @PathVariable @Schema(description = "Supplier name of the products to retrieve", example = "TechSupplier Inc.") String supplier) {
-        return productCatalogService.getProductsBySupplier(supplier);
+    public ResponseEntity<List<Product>> getProductsBySupplier(
+            @PathVariable @Schema(description = "Supplier name of the products to retrieve", example = "TechSupplier Inc.") String supplier,
+            WebRequest request) {
+        return EntityTags.conditionalGet(request, productCatalogService.getCatalogETag(),
+                () -> productCatalogService.getProductsBySupplier(supplier));
+    }
+
+    @Operation(summary = "Retrieve summaries of products by supplier", description = "Fetch the ID, name, price and stock of the products of a supplier. Only those columns are read.")
+    @ApiResponse(responseCode = "200", description = "List of product summaries retrieved successfully")
+    @GetMapping(value = "/supplier/{supplier}", params = {"view=summary", "!size"})
+    public ResponseEntity<List<ProductSummary>> getProductSummariesBySupplier(
+            @PathVariable @Schema(description = "Supplier name of the products to retrieve", example = "TechSupplier Inc.") String supplier,
+            WebRequest request) {
+        return EntityTags.conditionalGet(request, productCatalogService.getCatalogETag(),
+                () -> productCatalogService.getProductSummariesBySupplier(supplier));
+    }
+
+    @Operation(summary = "Retrieve a page of products by supplier", description = "Fetch one page of the products of a supplier sorted by price, using an opaque cursor returned by the previous page.")
+    @ApiResponse(responseCode = "200", description = "Page of products retrieved successfully")
+    @GetMapping(value = "/supplier/{supplier}", params = "size")
+    public ResponseEntity<CursorPage<Product>> getProductsBySupplierPage(
+            @PathVariable @Schema(description = "Supplier name of the products to retrieve", example = "TechSupplier Inc.") String supplier,
+            @RequestParam @Schema(description = "Maximum number of products in the page", example = "50") int size,
+            @RequestParam(required = false) @Schema(description = "Cursor returned by the previous page, omitted for the first page") String cursor,
+            WebRequest request) {
+        return EntityTags.conditionalGet(request, productCatalogService.getCatalogETag(),
+                () -> productCatalogService.getProductsBySupplierPage(supplier, cursor, size));
     }
 
     @Operation(summary = "Retrieve products within a price range", description = "Fetch all products with prices within the specified range.")
     @ApiResponse(responseCode = "200", description = "List of products retrieved successfully")
     @GetMapping("/price-range")
-    public List<Product> getProductsByPriceRange(
+    public ResponseEntity<List<Product>> getProductsByPriceRange(
             @RequestParam @Schema(description = "Minimum price", example = "100.0") Float minPrice,
-            @RequestParam @Schema(description = "Maximum price", example = "500.0") Float maxPrice) {
-        return productCatalogService.getProductsByPriceRange(minPrice, maxPrice);
+            @RequestParam @Schema(description = "Maximum price", example = "500.0") Float maxPrice,
+            WebRequest request) {
+        return EntityTags.conditionalGet(request, productCatalogService.getCatalogETag(),
+                () -> productCatalogService.getProductsByPriceRange(minPrice, maxPrice));
     }
 
-    @Operation(summary = "Update an existing product", description = "Modify the details of an existing product.")
+    @Operation(summary = "Retrieve summaries of products within a price range", description = "Fetch the ID, name, price and stock of the products within the specified range. Only those columns are read.")
+    @ApiResponse(responseCode = "200", description = "List of product summaries retrieved successfully")
+    @GetMapping(value = "/price-range", params = {"view=summary", "!size"})
+    public ResponseEntity<List<ProductSummary>> getProductSummariesByPriceRange(
+            @RequestParam @Schema(description = "Minimum price", example = "100.0") Float minPrice,
+            @RequestParam @Schema(description = "Maximum price", example = "500.0") Float maxPrice,
+            WebRequest request) {
+        return EntityTags.conditionalGet(request, productCatalogService.getCatalogETag(),
+                () -> productCatalogService.getProductSummariesByPriceRange(minPrice, maxPrice));
+    }
+
+    @Operation(summary = "Retrieve a page of products within a price range", description = "Fetch one page of the products within the specified range sorted by price, using an opaque cursor returned by the previous page.")
+    @ApiResponse(responseCode = "200", description = "Page of products retrieved successfully")
+    @GetMapping(value = "/price-range", params = "size")
+    public ResponseEntity<CursorPage<Product>> getProductsByPriceRangePage(
+            @RequestParam @Schema(description = "Minimum price", example = "100.0") Float minPrice,
+            @RequestParam @Schema(description = "Maximum price", example = "500.0") Float maxPrice,
+            @RequestParam @Schema(description = "Maximum number of products in the page", example = "50") int size,
+            @RequestParam(required = false) @Schema(description = "Cursor returned by the previous page, omitted for the first page") String cursor,
+            WebRequest request) {
+        return EntityTags.conditionalGet(request, productCatalogService.getCatalogETag(),
+                () -> productCatalogService.getProductsByPriceRangePage(minPrice, maxPrice, cursor, size));
+    }
+
+    @Operation(summary = "Query products", description = "Fetch one page of the products matching any combination of category, supplier, price range, stock threshold and name prefix, "
+            + "ordered by price, name, stock or ID, using an opaque cursor returned by the previous page. Filters that are not given are ignored.")
+    @ApiResponse(responseCode = "200", description = "Page of products retrieved successfully")
+    @GetMapping("/query")
+    public ResponseEntity<CursorPage<Product>> queryProducts(
+            @RequestParam(required = false) @Schema(description = "Category of the products", example = "Electronics") String category,
+            @RequestParam(required = false) @Schema(description = "Supplier of the products", example = "TechSupplier Inc.") String supplier,
+            @RequestParam(required = false) @Schema(description = "Minimum price", example = "100.0") Float minPrice,
+            @RequestParam(required = false) @Schema(description = "Maximum price", example = "500.0") Float maxPrice,
+            @RequestParam(required = false) @Schema(description = "Only products with less stock than this", example = "10") Float stockBelow,
+            @RequestParam(required = false) @Schema(description = "Only products whose name starts with this text", example = "Wire") String namePrefix,
+            @RequestParam(defaultValue = "PRICE") @Schema(description = "Sort column: PRICE, NAME, STOCK or ID", example = "PRICE") String sort,
+            @RequestParam(defaultValue = "ASC") @Schema(description = "Sorting direction: ASC for ascending or DESC for descending", example = "ASC") String direction,
+            @RequestParam(defaultValue = "50") @Schema(description = "Maximum number of products in the page", example = "50") int size,
+            @RequestParam(required = false) @Schema(description = "Cursor returned by the previous page, omitted for the first page") String cursor,
+            WebRequest request) {
+        ProductQuery query = new ProductQuery(category, supplier, minPrice, maxPrice, stockBelow, namePrefix,
+                ProductQuery.SortField.valueOf(sort.toUpperCase(Locale.ROOT)), Sort.Direction.fromString(direction));
+        return EntityTags.conditionalGet(request, productCatalogService.getCatalogETag(),
+                () -> productCatalogService.queryProducts(query, cursor, size));
+    }
+
+    @Operation(summary = "Update an existing product", description = "Modify the details of an existing product. With If-Match, the update only applies if the product is still at that version.")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Product updated successfully"),
-        @ApiResponse(responseCode = "404", description = "Product not found", content = @Content)
+        @ApiResponse(responseCode = "404", description = "Product not found", content = @Content),
+        @ApiResponse(responseCode = "412", description = "Product modified since the version in If-Match", content = @Content)
     })
     @PutMapping("/{id}")
-    public Product updateProduct(
+    public ResponseEntity<Product> updateProduct(
             @PathVariable @Schema(description = "ID of the product to update", example = "1") Long id,
-            @RequestBody @Schema(description = "Updated product details") Product product) {
-        return productCatalogService.updateProduct(id, product);
+            @RequestBody @Schema(description = "Updated product details") Product product,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) @Schema(description = "ETag of the version being updated", example = "\"3\"") String ifMatch) {
+        Product updated = productCatalogService.updateProduct(id, product, EntityTags.requiredVersion(ifMatch));
+        return ResponseEntity.ok().eTag(EntityTags.of(updated.getVersion())).body(updated);
+    }
+
+    @Operation(summary = "Partially update a product", description = "Change only the provided fields of a product with a single statement, without reading it first.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Product updated successfully"),
+        @ApiResponse(responseCode = "404", description = "Product not found", content = @Content)
+    })
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patchProduct(
+            @PathVariable @Schema(description = "ID of the product to update", example = "1") Long id,
+            @RequestBody @Schema(description = "Product fields to change; omitted fields are left unchanged") Product product) {
+        productCatalogService.patchProduct(id, product);
+        return ResponseEntity.noContent().build();
     }
 
     @Operation(summary = "Delete a product by ID", description = "Remove a product from the catalog by its ID.")
@@ -98,12 +306,138 @@ public class ProductCatalogController {
         return ResponseEntity.noContent().build();
     }
 
-    @Operation(summary = "Delete all products in a specific category", description = "Remove all products belonging to the specified category.")
-    @ApiResponse(responseCode = "204", description = "Products deleted successfully")
+    // Bulk operations
+
+    @Operation(summary = "Delete all products in a specific category", description = "Remove all products belonging to the specified category. "
+            + "The matching products are locked with SELECT ... FOR UPDATE, then deleted by ID in statements of up to 1000 IDs, in one transaction, "
+            + "so the deletion event lists exactly the deleted products. All the matching IDs are held in memory and a large match costs one statement per 1000 products.")
+    @ApiResponse(responseCode = "200", description = "Products deleted successfully, with the number of deleted products")
     @DeleteMapping("/category/{category}")
-    public ResponseEntity<Void> deleteProductsByCategory(
+    public BulkOperationResult deleteProductsByCategory(
             @PathVariable @Schema(description = "Category of the products to delete", example = "Electronics") String category) {
-        productCatalogService.deleteProductsByCategory(category);
+        return new BulkOperationResult(productCatalogService.deleteProductsByCategory(category));
+    }
+
+    @Operation(summary = "Delete all products of a specific supplier", description = "Remove all products supplied by the specified supplier. "
+            + "The matching products are locked with SELECT ... FOR UPDATE, then deleted by ID in statements of up to 1000 IDs, in one transaction, "
+            + "so the deletion event lists exactly the deleted products. All the matching IDs are held in memory and a large match costs one statement per 1000 products.")
+    @ApiResponse(responseCode = "200", description = "Products deleted successfully, with the number of deleted products")
+    @DeleteMapping("/supplier/{supplier}")
+    public BulkOperationResult deleteProductsBySupplier(
+            @PathVariable @Schema(description = "Supplier of the products to delete", example = "TechSupplier Inc.") String supplier) {
+        return new BulkOperationResult(productCatalogService.deleteProductsBySupplier(supplier));
+    }
+
+    @Operation(summary = "Delete products by ID", description = "Remove the products with the given IDs with a single statement. Unknown IDs are ignored.")
+    @ApiResponse(responseCode = "200", description = "Products deleted successfully, with the number of deleted products")
+    @DeleteMapping(params = "ids")
+    public BulkOperationResult deleteProductsByIds(
+            @RequestParam @Schema(description = "IDs of the products to delete", example = "1,2,3") List<Long> ids) {
+        return new BulkOperationResult(productCatalogService.deleteProductsByIds(ids));
+    }
+
+    @Operation(summary = "Adjust price and stock of a category", description = "Change the price by a percentage and/or the stock by a quantity for every product in the category. "
+            + "The products are locked with SELECT ... FOR UPDATE, then adjusted by ID in statements of up to 1000 IDs per adjusted column, in one transaction, "
+            + "so the adjustment event lists exactly the adjusted products. All the matching IDs are held in memory.")
+    @ApiResponse(responseCode = "200", description = "Products adjusted successfully, with the number of adjusted products")
+    @PostMapping("/category/{category}/adjustments")
+    public BulkOperationResult adjustProductsByCategory(
+            @PathVariable @Schema(description = "Category of the products to adjust", example = "Electronics") String category,
+            @RequestParam(required = false) @Schema(description = "Percentage added to the price, negative for a discount", example = "5") Float pricePercent,
+            @RequestParam(required = false) @Schema(description = "Quantity added to the stock, negative to remove; stock never goes below zero", example = "-2") Float stockDelta) {
+        return new BulkOperationResult(productCatalogService.adjustProductsByCategory(category, pricePercent, stockDelta));
+    }
+
+    // Stock reservations
+
+    @Operation(summary = "Reserve stock of a product", description = "Atomically take a quantity out of the product's stock. Fails without changes if the stock is not enough.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Stock reserved successfully"),
+        @ApiResponse(responseCode = "404", description = "Product not found", content = @Content),
+        @ApiResponse(responseCode = "409", description = "Not enough stock", content = @Content)
+    })
+    @PostMapping("/{id}/reserve")
+    public ResponseEntity<Void> reserveStock(
+            @PathVariable @Schema(description = "ID of the product", example = "1") Long id,
+            @RequestParam @Schema(description = "Quantity to reserve", example = "2") Float quantity) {
+        productCatalogService.reserveStock(id, quantity);
         return ResponseEntity.noContent().build();
     }
+
+    @Operation(summary = "Release stock of a product", description = "Atomically put a previously reserved quantity back into the product's stock.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Stock released successfully"),
+        @ApiResponse(responseCode = "404", description = "Product not found", content = @Content)
+    })
+    @PostMapping("/{id}/release")
+    public ResponseEntity<Void> releaseStock(
+            @PathVariable @Schema(description = "ID of the product", example = "1") Long id,
+            @RequestParam @Schema(description = "Quantity to release", example = "2") Float quantity) {
+        productCatalogService.releaseStock(id, quantity);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Reserve stock of several products", description = "Reserve the stock of every item of an order in one transaction: either all items are reserved or none is.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Stock reserved successfully"),
+        @ApiResponse(responseCode = "404", description = "A product was not found", content = @Content),
+        @ApiResponse(responseCode = "409", description = "A product has not enough stock", content = @Content)
+    })
+    @PostMapping("/reserve")
+    public ResponseEntity<Void> reserveStock(
+            @RequestBody @Schema(description = "Products and quantities to reserve") List<StockReservation> items) {
+        productCatalogService.reserveStock(items);
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Release stock of several products", description = "Put back the stock of every item of an order in one transaction.")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Stock released successfully"),
+        @ApiResponse(responseCode = "404", description = "A product was not found", content = @Content)
+    })
+    @PostMapping("/release")
+    public ResponseEntity<Void> releaseStock(
+            @RequestBody @Schema(description = "Products and quantities to release") List<StockReservation> items) {
+        productCatalogService.releaseStock(items);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Bulk import
+
+    @Operation(summary = "Import products from JSON", description = "Bulk insert a JSON array of products. Rows are validated like single creations and inserted in batches; invalid rows are reported and skipped.")
+    @ApiResponse(responseCode = "200", description = "Import finished, see the report for rejected rows")
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ProductImportReport importProductsJson(
+            HttpServletRequest request,
+            @RequestParam(required = false) @Schema(description = "Number of rows per insert batch", example = "1000") Integer batchSize) throws IOException {
+        return productImportService.importJson(request.getInputStream(), batchSize);
+    }
+
+    @Operation(summary = "Import products from CSV", description = "Bulk insert products from CSV with a header row (name, description, stock, price, supplier, category). Invalid rows are reported and skipped.")
+    @ApiResponse(responseCode = "200", description = "Import finished, see the report for rejected rows")
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ProductImportReport importProductsCsv(
+            HttpServletRequest request,
+            @RequestParam(required = false) @Schema(description = "Number of rows per insert batch", example = "1000") Integer batchSize) throws IOException {
+        return productImportService.importCsv(request.getInputStream(), requestCharset(request), batchSize);
+    }
+
+    @Operation(summary = "Import products from an uploaded file", description = "Bulk insert products from an uploaded .csv file or JSON array file. Invalid rows are reported and skipped.")
+    @ApiResponse(responseCode = "200", description = "Import finished, see the report for rejected rows")
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ProductImportReport importProductsFile(
+            @RequestParam("file") @Schema(description = "CSV or JSON file with the products") MultipartFile file,
+            @RequestParam(required = false) @Schema(description = "Number of rows per insert batch", example = "1000") Integer batchSize) throws IOException {
+        String filename = file.getOriginalFilename() == null ? "" : file.getOriginalFilename().toLowerCase();
+        boolean csv = filename.endsWith(".csv") || "text/csv".equals(file.getContentType());
+        try (InputStream in = file.getInputStream()) {
+            return csv
+                    ? productImportService.importCsv(in, StandardCharsets.UTF_8, batchSize)
+                    : productImportService.importJson(in, batchSize);
+        }
+    }
+
+    private static Charset requestCharset(HttpServletRequest request) {
+        return request.getCharacterEncoding() != null ? Charset.forName(request.getCharacterEncoding()) : StandardCharsets.UTF_8;
+    }
 }
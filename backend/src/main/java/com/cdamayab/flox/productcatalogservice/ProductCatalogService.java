@@ -1,18 +1,79 @@
 package com.cdamayab.flox.productcatalogservice;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 import com.cdamayab.flox.common.*;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class ProductCatalogService {
 
+    /** Largest page a client can request from the paginated listings. */
+    public static final int MAX_PAGE_SIZE = 500;
+
+    /** Largest ID list bound to one statement of a bulk operation. */
+    private static final int BULK_CHUNK_SIZE = 1000;
+
+    /** Number of exported rows written between two flushes of the response. */
+    private static final int EXPORT_FLUSH_INTERVAL = 500;
+
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${flox.products.cache.max-size:10000}")
+    private int cacheMaxSize;
+
+    @Value("${flox.products.cache.ttl:PT10M}")
+    private Duration cacheTtl;
+
+    /** Read-through cache in front of {@link #getProductById(Long)}, kept in sync by every write. */
+    private BoundedCache<Long, Product> productCache;
+
+    /** Committed catalog changes, behind the ETag of the product listings. */
+    private TableChangeCounter catalogChanges;
+
+    @PostConstruct
+    void initCache() {
+        productCache = new BoundedCache<>(cacheMaxSize, cacheTtl);
+        catalogChanges = new TableChangeCounter(jdbcTemplate, "product");
+    }
+
     /**
      * Retrieve all products with optional sorting by price.
      * 
@@ -23,16 +84,56 @@ public class ProductCatalogService {
         return productRepository.findAll(Sort.by(direction, "price"));
     }
 
+    /**
+     * Retrieve one page of products ordered by price, using keyset pagination.
+     * 
+     * @param direction Sorting direction (ASC or DESC).
+     * @param cursor Cursor returned with the previous page, or null for the first page.
+     * @param size Maximum number of products in the page.
+     * @return The page of products and the cursor of the next page.
+     */
+    public CursorPage<Product> getProductsPage(Sort.Direction direction, String cursor, int size) {
+        checkPageSize(size);
+        List<Product> rows;
+        if (direction.isAscending()) {
+            ProductCursor position = ProductCursor.decode(cursor, ProductCursor.FIRST_ASC);
+            rows = productRepository.findPageAfter(position.price(), position.id(), size + 1);
+        } else {
+            ProductCursor position = ProductCursor.decode(cursor, ProductCursor.FIRST_DESC);
+            rows = productRepository.findPageBefore(position.price(), position.id(), size + 1);
+        }
+        return CursorPage.of(rows, size, ProductCursor::after);
+    }
+
     /**
      * Retrieve a product by its ID with error handling.
+     * Served from the product cache when possible.
      * 
      * @param id Unique identifier of the product.
      * @return The product with the specified ID.
      * @throws ProductNotFoundException If the product does not exist.
      */
     public Product getProductById(Long id) {
-        return productRepository.findById(id)
-                .orElseThrow(() -> new ProductNotFoundException("Product not found with ID: " + id));
+        return productCache.get(id, this::findProduct);
+    }
+
+    /**
+     * Usage counters of the product cache.
+     * 
+     * @return Hit, miss and eviction counters.
+     */
+    public CacheStats getProductCacheStats() {
+        return productCache.stats();
+    }
+
+    /**
+     * ETag of the product listings. It changes whenever a product is created, updated or deleted,
+     * so clients can revalidate a listing without it being queried.
+     * 
+     * @return Strong ETag of the current catalog.
+     */
+    public String getCatalogETag() {
+        return catalogChanges.eTag();
     }
 
     /**
@@ -43,7 +144,10 @@ public class ProductCatalogService {
      */
     public Product createProduct(Product product) {
         validateProduct(product); // Validate product details before saving
-        return productRepository.save(product);
+        Product created = productRepository.save(product);
+        productCache.put(created.getId(), created);
+        eventPublisher.publishEvent(new ProductChangedEvent(created, true));
+        return created;
     }
 
     /**
@@ -51,11 +155,16 @@ public class ProductCatalogService {
      * 
      * @param id Unique identifier of the product to update.
      * @param updatedProduct Updated product details.
+     * @param expectedVersion Version the client last read (from If-Match), or null to update any version.
      * @return The updated product.
      * @throws ProductNotFoundException If the product does not exist.
+     * @throws PreconditionFailedException If the product is no longer at the expected version.
      */
-    public Product updateProduct(Long id, Product updatedProduct) {
-        Product existingProduct = getProductById(id); // Ensure the product exists
+    public Product updateProduct(Long id, Product updatedProduct, Long expectedVersion) {
+        Product existingProduct = findProduct(id); // Ensure the product exists, bypassing the cached instance
+        if (expectedVersion != null && !expectedVersion.equals(existingProduct.getVersion())) {
+            throw new PreconditionFailedException("Product with ID: " + id + " was modified, current version is " + existingProduct.getVersion());
+        }
 
         // Update fields only if the new value is provided
         if (updatedProduct.getName()        != null) existingProduct.setName(updatedProduct.getName());
@@ -65,7 +174,30 @@ public class ProductCatalogService {
         if (updatedProduct.getSupplier()    != null) existingProduct.setSupplier(updatedProduct.getSupplier());
         if (updatedProduct.getCategory()    != null) existingProduct.setCategory(updatedProduct.getCategory());
 
-        return productRepository.save(existingProduct);
+        Product saved = productRepository.save(existingProduct);
+        // Only invalidate: putting the saved copy could overwrite a newer update committed by a faster writer
+        productCache.invalidate(id);
+        eventPublisher.publishEvent(new ProductChangedEvent(saved, true));
+        return saved;
+    }
+
+    /**
+     * Partially update a product with a single UPDATE statement touching only the provided fields.
+     * The product is not read first; a missing product is detected from the affected-row count.
+     * 
+     * @param id Unique identifier of the product to update.
+     * @param changes Fields to update; null fields are left unchanged.
+     * @throws ProductNotFoundException If the product does not exist.
+     * @throws IllegalArgumentException If no field is provided or a provided value is invalid.
+     */
+    public void patchProduct(Long id, Product changes) {
+        validateProductPatch(changes);
+        if (productRepository.patch(id, changes) == 0) {
+            throw new ProductNotFoundException("Product not found with ID: " + id);
+        }
+        productCache.invalidate(id);
+        changes.setId(id);
+        eventPublisher.publishEvent(new ProductChangedEvent(changes, false));
     }
 
     /**
@@ -75,10 +207,20 @@ public class ProductCatalogService {
      * @throws ProductNotFoundException If the product does not exist.
      */
     public void deleteProduct(Long id) {
-        if (!productRepository.existsById(id)) {
+        if (productRepository.deleteOneById(id) == 0) {
             throw new ProductNotFoundException("Product not found with ID: " + id);
         }
-        productRepository.deleteById(id);
+        eventPublisher.publishEvent(new ProductsDeletedEvent(List.of(id)));
+    }
+
+    /**
+     * Retrieve several products by ID with a single query.
+     * 
+     * @param ids IDs of the products.
+     * @return The existing products among the given IDs, in no particular order.
+     */
+    public List<Product> getProductsByIds(Collection<Long> ids) {
+        return productRepository.findAllById(ids);
     }
 
     /**
@@ -91,6 +233,21 @@ public class ProductCatalogService {
         return productRepository.findByCategory(category);
     }
 
+    /**
+     * Retrieve one page of the products of a category, ordered by price.
+     * 
+     * @param category Category to filter by.
+     * @param cursor Cursor returned with the previous page, or null for the first page.
+     * @param size Maximum number of products in the page.
+     * @return The page of products and the cursor of the next page.
+     */
+    public CursorPage<Product> getProductsByCategoryPage(String category, String cursor, int size) {
+        checkPageSize(size);
+        ProductCursor position = ProductCursor.decode(cursor, ProductCursor.FIRST_ASC);
+        List<Product> rows = productRepository.findPageByCategoryAfter(category, position.price(), position.id(), size + 1);
+        return CursorPage.of(rows, size, ProductCursor::after);
+    }
+
     /**
      * Retrieve all products supplied by a specific supplier.
      * 
@@ -101,6 +258,63 @@ public class ProductCatalogService {
         return productRepository.findBySupplier(supplier);
     }
 
+    /**
+     * Retrieve the summaries (ID, name, price and stock) of all products, sorted by price.
+     * Only those columns are read and no entity is loaded.
+     * 
+     * @param direction Sorting direction (ASC or DESC).
+     * @return Summaries of all products sorted as specified.
+     */
+    public List<ProductSummary> getAllProductSummaries(Sort.Direction direction) {
+        return productRepository.findAllSummaries(Sort.by(direction, "price"));
+    }
+
+    /**
+     * Retrieve the summaries of the products of a category.
+     * 
+     * @param category Category to filter by.
+     * @return Summaries of the products in the specified category.
+     */
+    public List<ProductSummary> getProductSummariesByCategory(String category) {
+        return productRepository.findSummariesByCategory(category);
+    }
+
+    /**
+     * Retrieve the summaries of the products of a supplier.
+     * 
+     * @param supplier Supplier to filter by.
+     * @return Summaries of the products supplied by the specified supplier.
+     */
+    public List<ProductSummary> getProductSummariesBySupplier(String supplier) {
+        return productRepository.findSummariesBySupplier(supplier);
+    }
+
+    /**
+     * Retrieve the summaries of the products within a specified price range.
+     * 
+     * @param minPrice Minimum price (inclusive).
+     * @param maxPrice Maximum price (inclusive).
+     * @return Summaries of the products within the specified price range.
+     */
+    public List<ProductSummary> getProductSummariesByPriceRange(Float minPrice, Float maxPrice) {
+        return productRepository.findSummariesByPriceBetween(minPrice, maxPrice);
+    }
+
+    /**
+     * Retrieve one page of the products of a supplier, ordered by price.
+     * 
+     * @param supplier Supplier to filter by.
+     * @param cursor Cursor returned with the previous page, or null for the first page.
+     * @param size Maximum number of products in the page.
+     * @return The page of products and the cursor of the next page.
+     */
+    public CursorPage<Product> getProductsBySupplierPage(String supplier, String cursor, int size) {
+        checkPageSize(size);
+        ProductCursor position = ProductCursor.decode(cursor, ProductCursor.FIRST_ASC);
+        List<Product> rows = productRepository.findPageBySupplierAfter(supplier, position.price(), position.id(), size + 1);
+        return CursorPage.of(rows, size, ProductCursor::after);
+    }
+
     /**
      * Retrieve all products sorted by price in the specified direction.
      * 
@@ -122,6 +336,42 @@ public class ProductCatalogService {
         return productRepository.findByPriceBetween(minPrice, maxPrice);
     }
 
+    /**
+     * Retrieve one page of the products within a price range, ordered by price.
+     * 
+     * @param minPrice Minimum price (inclusive).
+     * @param maxPrice Maximum price (inclusive).
+     * @param cursor Cursor returned with the previous page, or null for the first page.
+     * @param size Maximum number of products in the page.
+     * @return The page of products and the cursor of the next page.
+     */
+    public CursorPage<Product> getProductsByPriceRangePage(Float minPrice, Float maxPrice, String cursor, int size) {
+        checkPageSize(size);
+        ProductCursor position = ProductCursor.decode(cursor, ProductCursor.FIRST_ASC);
+        List<Product> rows = productRepository.findPageByPriceBetweenAfter(minPrice, maxPrice, position.price(), position.id(), size + 1);
+        return CursorPage.of(rows, size, ProductCursor::after);
+    }
+
+    /**
+     * Retrieve one page of the products matching any combination of filters, using keyset pagination.
+     * The filters are combined into a single statement served by the composite indexes of the product table.
+     * 
+     * @param query Filters and ordering; null filters are ignored.
+     * @param cursor Cursor returned with the previous page, or null for the first page.
+     * @param size Maximum number of products in the page.
+     * @return The page of products and the cursor of the next page.
+     * @throws IllegalArgumentException If the price range is inverted, or the cursor belongs to another ordering.
+     */
+    public CursorPage<Product> queryProducts(ProductQuery query, String cursor, int size) {
+        checkPageSize(size);
+        if (query.minPrice() != null && query.maxPrice() != null && query.minPrice() > query.maxPrice()) {
+            throw new IllegalArgumentException("Minimum price cannot be greater than maximum price.");
+        }
+        ProductQueryCursor position = ProductQueryCursor.decode(cursor, query.sort());
+        List<Product> rows = productRepository.findPage(query, position, size + 1);
+        return CursorPage.of(rows, size, product -> ProductQueryCursor.after(query.sort(), product));
+    }
+
     /**
      * Search for products by name (case-insensitive).
      * 
@@ -134,11 +384,257 @@ public class ProductCatalogService {
 
     /**
      * Delete all products in a specific category.
+     * The products are locked by ID first and deleted by ID, {@value #BULK_CHUNK_SIZE} IDs per statement, so the
+     * deletion event lists exactly the deleted rows. The IDs are held in memory for the duration of the call.
      * 
      * @param category Category to delete products from.
+     * @return Number of deleted products.
      */
-    public void deleteProductsByCategory(String category) {
-        productRepository.deleteByCategory(category);
+    @Transactional
+    public int deleteProductsByCategory(String category) {
+        return deleteLockedProducts(productRepository.lockIdsByCategory(category));
+    }
+
+    /**
+     * Delete all products of a specific supplier.
+     * The products are locked by ID first and deleted by ID, {@value #BULK_CHUNK_SIZE} IDs per statement, so the
+     * deletion event lists exactly the deleted rows. The IDs are held in memory for the duration of the call.
+     * 
+     * @param supplier Supplier to delete products from.
+     * @return Number of deleted products.
+     */
+    @Transactional
+    public int deleteProductsBySupplier(String supplier) {
+        return deleteLockedProducts(productRepository.lockIdsBySupplier(supplier));
+    }
+
+    private int deleteLockedProducts(List<Long> ids) {
+        int deleted = 0;
+        for (int from = 0; from < ids.size(); from += BULK_CHUNK_SIZE) {
+            deleted += productRepository.deleteAllByIdIn(ids.subList(from, Math.min(from + BULK_CHUNK_SIZE, ids.size())));
+        }
+        eventPublisher.publishEvent(new ProductsDeletedEvent(ids));
+        return deleted;
+    }
+
+    /**
+     * Delete the products with the given IDs with a single statement.
+     * IDs that do not exist are ignored.
+     * 
+     * @param ids IDs of the products to delete.
+     * @return Number of deleted products.
+     */
+    @Transactional
+    public int deleteProductsByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        List<Long> existing = productRepository.findExistingIds(ids);
+        int deleted = productRepository.deleteAllByIdIn(ids);
+        eventPublisher.publishEvent(new ProductsDeletedEvent(existing));
+        return deleted;
+    }
+
+    /**
+     * Adjust the price and/or stock of every product in a category, one statement per adjusted column.
+     * The products are locked by ID first and adjusted by ID, so the adjustment event lists exactly the adjusted rows.
+     * 
+     * @param category Category whose products are adjusted.
+     * @param pricePercent Percentage added to the price (e.g. 5 for +5%, -10 for -10%), or null to keep prices.
+     * @param stockDelta Quantity added to the stock (negative to remove, floored at zero), or null to keep stock.
+     * @return Number of adjusted products.
+     * @throws IllegalArgumentException If the adjustment would make prices zero or negative.
+     */
+    @Transactional
+    public int adjustProductsByCategory(String category, Float pricePercent, Float stockDelta) {
+        if (pricePercent != null && pricePercent <= -100) {
+            throw new IllegalArgumentException("Price adjustment must be greater than -100%.");
+        }
+        float priceFactor = pricePercent == null ? 1f : 1f + pricePercent / 100f;
+        float delta = stockDelta == null ? 0f : stockDelta;
+        if (priceFactor == 1f && delta == 0f) {
+            return 0;
+        }
+        List<Long> ids = productRepository.lockIdsByCategory(category);
+        for (int from = 0; from < ids.size(); from += BULK_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + BULK_CHUNK_SIZE, ids.size()));
+            if (priceFactor != 1f) {
+                productRepository.scalePriceByIdIn(chunk, priceFactor);
+            }
+            if (delta != 0f) {
+                productRepository.adjustStockByIdIn(chunk, delta);
+            }
+        }
+        eventPublisher.publishEvent(new ProductsAdjustedEvent(ids, priceFactor, delta));
+        return ids.size(); // Every locked row is adjusted, whichever columns change
+    }
+
+    /**
+     * Reserve stock of a single product.
+     *
+     * @param id ID of the product.
+     * @param quantity Quantity to take out of the stock.
+     * @throws ProductNotFoundException If the product does not exist.
+     * @throws InsufficientStockException If the product has less stock than requested.
+     * @see #reserveStock(Collection)
+     */
+    @Transactional
+    public void reserveStock(Long id, Float quantity) {
+        reserveStock(List.of(new StockReservation(id, quantity)));
+    }
+
+    /**
+     * Reserve stock of several products, all or nothing.
+     * Each product is decremented with one conditional UPDATE that fails instead of going below zero,
+     * so concurrent reservations neither lose updates nor oversell, and a row is only locked for the
+     * duration of its statement. Products are updated in ascending ID order, so two reservations
+     * sharing products always lock them in the same order and cannot deadlock each other.
+     *
+     * @param items Products and quantities to reserve; quantities of repeated products are added up.
+     * @throws ProductNotFoundException If a product does not exist. Nothing is reserved.
+     * @throws InsufficientStockException If a product has less stock than requested. Nothing is reserved.
+     */
+    @Transactional
+    public void reserveStock(Collection<StockReservation> items) {
+        SortedMap<Long, Float> quantities = mergeStockReservations(items);
+        quantities.forEach((id, quantity) -> {
+            if (productRepository.reserveStock(id, quantity) == 0) {
+                if (!productRepository.existsById(id)) {
+                    throw new ProductNotFoundException("Product not found with ID: " + id);
+                }
+                throw new InsufficientStockException("Not enough stock to reserve " + quantity + " of product with ID: " + id);
+            }
+        });
+        quantities.forEach((id, quantity) ->
+                eventPublisher.publishEvent(new ProductsAdjustedEvent(List.of(id), 1f, -quantity)));
+    }
+
+    /**
+     * Release stock of a single product, e.g. when an order is cancelled.
+     *
+     * @param id ID of the product.
+     * @param quantity Quantity to put back into the stock.
+     * @throws ProductNotFoundException If the product does not exist.
+     * @see #releaseStock(Collection)
+     */
+    @Transactional
+    public void releaseStock(Long id, Float quantity) {
+        releaseStock(List.of(new StockReservation(id, quantity)));
+    }
+
+    /**
+     * Release stock of several products, all or nothing, in ascending ID order.
+     *
+     * @param items Products and quantities to release; quantities of repeated products are added up.
+     * @throws ProductNotFoundException If a product does not exist. Nothing is released.
+     */
+    @Transactional
+    public void releaseStock(Collection<StockReservation> items) {
+        SortedMap<Long, Float> quantities = mergeStockReservations(items);
+        quantities.forEach((id, quantity) -> {
+            if (productRepository.releaseStock(id, quantity) == 0) {
+                throw new ProductNotFoundException("Product not found with ID: " + id);
+            }
+        });
+        quantities.forEach((id, quantity) ->
+                eventPublisher.publishEvent(new ProductsAdjustedEvent(List.of(id), 1f, quantity)));
+    }
+
+    /**
+     * Validate reservation items and add up the quantities per product, ordered by product ID.
+     */
+    private static SortedMap<Long, Float> mergeStockReservations(Collection<StockReservation> items) {
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("At least one product must be given.");
+        }
+        SortedMap<Long, Float> quantities = new TreeMap<>();
+        for (StockReservation item : items) {
+            if (item.productId() == null) {
+                throw new IllegalArgumentException("Product ID is required.");
+            }
+            if (item.quantity() == null || !(item.quantity() > 0) || item.quantity().isInfinite()) {
+                throw new IllegalArgumentException("Quantity must be greater than zero.");
+            }
+            quantities.merge(item.productId(), item.quantity(), Float::sum);
+        }
+        return quantities;
+    }
+
+    /**
+     * Count a product creation, update, deletion or adjustment for the catalog ETag, in the
+     * transaction that writes it.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT, fallbackExecution = true,
+            classes = {ProductChangedEvent.class, ProductsDeletedEvent.class, ProductsAdjustedEvent.class})
+    public void countCatalogChange() {
+        catalogChanges.increment();
+    }
+
+    /**
+     * Drop the cached copies of deleted products once the deletion is committed.
+     * 
+     * @param event IDs of the deleted products.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsDeleted(ProductsDeletedEvent event) {
+        event.ids().forEach(productCache::invalidate);
+    }
+
+    /**
+     * Drop the cached copies of adjusted products once the adjustment is committed.
+     * 
+     * @param event IDs of the adjusted products.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsAdjusted(ProductsAdjustedEvent event) {
+        event.ids().forEach(productCache::invalidate);
+    }
+
+    /**
+     * Visit every product in the catalog, ordered by ID, without loading them all in memory.
+     * Rows are streamed from the database and each entity is detached once visited,
+     * so heap use stays flat regardless of the catalog size.
+     * 
+     * @param action Action applied to each product.
+     */
+    @Transactional(readOnly = true)
+    public void forEachProduct(Consumer<Product> action) {
+        try (Stream<Product> products = productRepository.streamAll()) {
+            products.forEach(product -> {
+                action.accept(product);
+                entityManager.detach(product);
+            });
+        }
+    }
+
+    /**
+     * Write the whole catalog as newline-delimited JSON, one product per line.
+     * The first row is flushed right away so clients start receiving data immediately.
+     * 
+     * @param out Stream the products are written to.
+     * @throws IOException If writing to the stream fails.
+     */
+    @Transactional(readOnly = true)
+    public void exportProducts(OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(Product.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false); // The container owns the response stream
+            generator.setRootValueSeparator(null);
+            long[] written = {0};
+            forEachProduct(product -> {
+                try {
+                    writer.writeValue(generator, product);
+                    generator.writeRaw('\n');
+                    if (written[0]++ % EXPORT_FLUSH_INTERVAL == 0) {
+                        generator.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
     }
 
     /**
@@ -150,6 +646,52 @@ public class ProductCatalogService {
         return productRepository.count();
     }
 
+    /**
+     * Validate the page size requested by a client.
+     * 
+     * @param size Requested page size.
+     * @throws IllegalArgumentException If the size is out of range.
+     */
+    private void checkPageSize(int size) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+    }
+
+    /**
+     * Validate the fields provided for a partial update.
+     * 
+     * @param changes Fields to update.
+     * @throws IllegalArgumentException If no field is provided or a provided value is invalid.
+     */
+    private void validateProductPatch(Product changes) {
+        if (changes.getName() == null && changes.getDescription() == null && changes.getStock() == null
+                && changes.getPrice() == null && changes.getSupplier() == null && changes.getCategory() == null) {
+            throw new IllegalArgumentException("At least one product field must be provided.");
+        }
+        if (changes.getName() != null && changes.getName().isEmpty()) {
+            throw new IllegalArgumentException("Product name cannot be empty.");
+        }
+        if (changes.getPrice() != null && changes.getPrice() <= 0) {
+            throw new IllegalArgumentException("Product price must be greater than zero.");
+        }
+        if (changes.getStock() != null && changes.getStock() < 0) {
+            throw new IllegalArgumentException("Product stock cannot be negative.");
+        }
+    }
+
+    /**
+     * Load a product from the database, bypassing the cache.
+     * 
+     * @param id Unique identifier of the product.
+     * @return The product with the specified ID.
+     * @throws ProductNotFoundException If the product does not exist.
+     */
+    private Product findProduct(Long id) {
+        return productRepository.findById(id)
+                .orElseThrow(() -> new ProductNotFoundException("Product not found with ID: " + id));
+    }
+
     /**
      * Validate product details before saving.
      * Ensures all required fields are present and valid.
@@ -157,7 +699,7 @@ public class ProductCatalogService {
      * @param product Product to validate.
      * @throws IllegalArgumentException If any validation fails.
      */
-    private void validateProduct(Product product) {
+    void validateProduct(Product product) {
         if (product.getName() == null || product.getName().isEmpty()) {
             throw new IllegalArgumentException("Product name cannot be empty.");
         }
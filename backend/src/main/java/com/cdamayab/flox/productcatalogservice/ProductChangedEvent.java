@@ -0,0 +1,14 @@
+package com.cdamayab.flox.productcatalogservice;
+
+/**
+ * Published by {@link ProductCatalogService} after a product is created or modified.
+ * A complete event carries the whole row. Otherwise only the non-null fields of {@code product} were
+ * written and null fields kept their previous value, which a listener that does not know the product
+ * yet can not fill in.
+ * Listeners must copy what they need and must not keep a reference to the product.
+ *
+ * @param product  the written product fields, always with its ID
+ * @param complete true if {@code product} is the whole row, false for a partial update
+ */
+public record ProductChangedEvent(Product product, boolean complete) {
+}
@@ -0,0 +1,57 @@
+package com.cdamayab.flox.productcatalogservice;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a product listing ordered by (price, id), encoded for clients as an opaque string.
+ * The price is kept as the exact double value of the stored float, so that equality against
+ * the FLOAT column holds when the seek query compares it.
+ *
+ * @param price price of the last product returned
+ * @param id    ID of the last product returned, breaks ties between equal prices
+ */
+record ProductCursor(double price, long id) {
+
+    /** Position before the first product of an ascending listing. */
+    static final ProductCursor FIRST_ASC = new ProductCursor(-Double.MAX_VALUE, Long.MIN_VALUE);
+
+    /** Position before the first product of a descending listing. */
+    static final ProductCursor FIRST_DESC = new ProductCursor(Double.MAX_VALUE, Long.MAX_VALUE);
+
+    /**
+     * Cursor pointing right after the given product.
+     *
+     * @param product last product of a page
+     * @return the encoded cursor
+     */
+    static String after(Product product) {
+        return new ProductCursor(product.getPrice(), product.getId()).encode();
+    }
+
+    /**
+     * Decodes a cursor previously returned to a client.
+     *
+     * @param cursor encoded cursor, or null for the first page
+     * @param first  position to use when no cursor is given
+     * @return the decoded position
+     * @throws IllegalArgumentException If the cursor is malformed.
+     */
+    static ProductCursor decode(String cursor, ProductCursor first) {
+        if (cursor == null || cursor.isEmpty()) {
+            return first;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(':');
+            return new ProductCursor(Double.parseDouble(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+
+    String encode() {
+        String raw = price + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,222 @@
+package com.cdamayab.flox.productcatalogservice;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * In-memory aggregates behind the catalog facets: product counts per category and per supplier,
+ * and min/max/average price per category.
+ *
+ * The store is seeded with one pass over the catalog once the application is ready, then adjusted
+ * incrementally from the product change events, so serving the facets never touches the database.
+ * It keeps the category, supplier and price of every product to know what to subtract when a
+ * product changes or is deleted.
+ */
+@Component
+public class ProductFacetStore {
+
+    private static final Comparator<String> NAME_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    @Autowired
+    private ProductCatalogService productCatalogService;
+
+    // Guarded by this
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private final Map<String, CategoryStats> categories = new HashMap<>();
+    private final Map<String, Long> suppliers = new HashMap<>();
+    private final Set<Long> changedDuringBuild = new HashSet<>();
+    private final Set<Long> reloadAfterBuild = new HashSet<>();
+    private boolean ready;
+
+    /**
+     * Seeds the aggregates from the catalog. Products written with a complete row while the seeding
+     * is running are taken from their change events and skipped here, so older rows never overwrite
+     * them. Partial updates and adjustments of products not seeded yet can not be applied; those
+     * products are read again once the scan is over, until none is left.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        productCatalogService.forEachProduct(product -> {
+            synchronized (this) {
+                if (!changedDuringBuild.contains(product.getId())) {
+                    replace(product);
+                }
+            }
+        });
+        while (true) {
+            List<Long> ids;
+            synchronized (this) {
+                ids = new ArrayList<>(reloadAfterBuild);
+                reloadAfterBuild.clear();
+                if (ids.isEmpty()) {
+                    changedDuringBuild.clear();
+                    ready = true;
+                    return;
+                }
+            }
+            List<Product> rows = productCatalogService.getProductsByIds(ids);
+            synchronized (this) {
+                for (Product row : rows) {
+                    if (!changedDuringBuild.contains(row.getId())) {
+                        replace(row);
+                    }
+                }
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        Long id = event.product().getId();
+        if (event.complete()) {
+            if (!ready) {
+                changedDuringBuild.add(id);
+            }
+            replace(event.product());
+        } else if (ready || entries.containsKey(id)) {
+            apply(event.product());
+        } else {
+            reloadAfterBuild.add(id);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductsDeleted(ProductsDeletedEvent event) {
+        for (Long id : event.ids()) {
+            if (!ready) {
+                changedDuringBuild.add(id);
+            }
+            Entry previous = entries.remove(id);
+            if (previous != null) {
+                subtract(previous);
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductsAdjusted(ProductsAdjustedEvent event) {
+        if (event.priceFactor() == 1f) {
+            return;
+        }
+        for (Long id : event.ids()) {
+            Entry previous = entries.get(id);
+            if (previous == null && !ready) {
+                reloadAfterBuild.add(id);
+            } else if (previous != null && previous.price != null) {
+                Entry adjusted = new Entry(previous.category, previous.supplier, previous.price * event.priceFactor());
+                subtract(previous);
+                add(adjusted);
+                entries.put(id, adjusted);
+            }
+        }
+    }
+
+    /**
+     * @return the current facets, sorted by category and supplier name
+     */
+    public synchronized ProductFacets getFacets() {
+        List<ProductFacets.CategoryFacet> categoryFacets = new ArrayList<>(categories.size());
+        categories.forEach((category, stats) -> categoryFacets.add(new ProductFacets.CategoryFacet(
+                category,
+                stats.count,
+                stats.prices.isEmpty() ? null : stats.prices.firstKey(),
+                stats.prices.isEmpty() ? null : stats.prices.lastKey(),
+                stats.pricedCount == 0 ? null : stats.priceSum / stats.pricedCount)));
+        categoryFacets.sort(Comparator.comparing(ProductFacets.CategoryFacet::category, NAME_ORDER));
+
+        List<ProductFacets.SupplierFacet> supplierFacets = new ArrayList<>(suppliers.size());
+        suppliers.forEach((supplier, count) -> supplierFacets.add(new ProductFacets.SupplierFacet(supplier, count)));
+        supplierFacets.sort(Comparator.comparing(ProductFacets.SupplierFacet::supplier, NAME_ORDER));
+
+        return new ProductFacets(entries.size(), categoryFacets, supplierFacets);
+    }
+
+    // Called with the monitor held
+
+    private void replace(Product product) {
+        Entry previous = entries.remove(product.getId());
+        if (previous != null) {
+            subtract(previous);
+        }
+        apply(product);
+    }
+
+    private void apply(Product changes) {
+        Entry previous = entries.get(changes.getId());
+        Entry current = previous == null
+                ? new Entry(changes.getCategory(), changes.getSupplier(), changes.getPrice())
+                : new Entry(
+                        changes.getCategory() != null ? changes.getCategory() : previous.category,
+                        changes.getSupplier() != null ? changes.getSupplier() : previous.supplier,
+                        changes.getPrice()    != null ? changes.getPrice()    : previous.price);
+        if (current.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            subtract(previous);
+        }
+        add(current);
+        entries.put(changes.getId(), current);
+    }
+
+    private void add(Entry entry) {
+        categories.computeIfAbsent(entry.category, key -> new CategoryStats()).add(entry.price);
+        suppliers.merge(entry.supplier, 1L, Long::sum);
+    }
+
+    private void subtract(Entry entry) {
+        CategoryStats stats = categories.get(entry.category);
+        if (stats != null && stats.remove(entry.price)) {
+            categories.remove(entry.category);
+        }
+        suppliers.computeIfPresent(entry.supplier, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private record Entry(String category, String supplier, Float price) {
+    }
+
+    /**
+     * Count and price statistics of one category. Prices are kept as a sorted multiset so the
+     * minimum and maximum stay exact when products are removed.
+     */
+    private static final class CategoryStats {
+        long count;
+        long pricedCount;
+        double priceSum;
+        final TreeMap<Float, Integer> prices = new TreeMap<>();
+
+        void add(Float price) {
+            count++;
+            if (price != null) {
+                pricedCount++;
+                priceSum += price;
+                prices.merge(price, 1, Integer::sum);
+            }
+        }
+
+        /**
+         * @return true when the category became empty
+         */
+        boolean remove(Float price) {
+            count--;
+            if (price != null) {
+                pricedCount--;
+                priceSum -= price;
+                prices.computeIfPresent(price, (key, n) -> n > 1 ? n - 1 : null);
+            }
+            return count == 0;
+        }
+    }
+}
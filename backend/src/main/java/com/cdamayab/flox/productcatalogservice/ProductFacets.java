@@ -0,0 +1,30 @@
+package com.cdamayab.flox.productcatalogservice;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Product counts per category and per supplier, used to build catalog filter menus.
+ */
+@Schema(description = "Product counts per category and supplier, with price statistics per category")
+public record ProductFacets(
+        @Schema(description = "Total number of products", example = "7") long totalProducts,
+        @Schema(description = "Facets per category, sorted by name") List<CategoryFacet> categories,
+        @Schema(description = "Facets per supplier, sorted by name") List<SupplierFacet> suppliers) {
+
+    @Schema(description = "Number of products and price statistics of a category")
+    public record CategoryFacet(
+            @Schema(description = "Category name", example = "Electrónica") String category,
+            @Schema(description = "Number of products in the category", example = "4") long count,
+            @Schema(description = "Lowest price in the category", example = "120000.0") Float minPrice,
+            @Schema(description = "Highest price in the category", example = "1500000.0") Float maxPrice,
+            @Schema(description = "Average price in the category", example = "572500.0") Double avgPrice) {
+    }
+
+    @Schema(description = "Number of products of a supplier")
+    public record SupplierFacet(
+            @Schema(description = "Supplier name", example = "FurniPro") String supplier,
+            @Schema(description = "Number of products of the supplier", example = "2") long count) {
+    }
+}
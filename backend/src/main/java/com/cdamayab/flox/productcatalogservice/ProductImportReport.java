@@ -0,0 +1,29 @@
+package com.cdamayab.flox.productcatalogservice;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk product import.
+ */
+@Schema(description = "Result of a bulk product import, listing the first rejected rows")
+public record ProductImportReport(
+        @Schema(description = "Number of rows read from the upload", example = "20000") long totalRows,
+        @Schema(description = "Number of products inserted", example = "19998") long imported,
+        @Schema(description = "Number of rows rejected", example = "2") long failed,
+        @Schema(description = "Time spent importing, in milliseconds", example = "850") long elapsedMillis,
+        @Schema(description = "Rejected rows and the reason they were rejected, at most the first 1000") List<RowError> errors) {
+
+    /**
+     * A row that could not be imported.
+     *
+     * @param row     1-based position of the row in the upload, not counting the CSV header
+     * @param message reason the row was rejected
+     */
+    @Schema(description = "Row that could not be imported")
+    public record RowError(
+            @Schema(description = "1-based position of the row in the upload, not counting the CSV header", example = "42") long row,
+            @Schema(description = "Reason the row was rejected", example = "Product price must be greater than zero.") String message) {
+    }
+}
@@ -0,0 +1,334 @@
+package com.cdamayab.flox.productcatalogservice;
+
+import com.cdamayab.flox.common.CsvReader;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Service for importing large product catalogs in bulk.
+ *
+ * Uploads are read as a stream and validated row by row with the same rules as
+ * {@link ProductCatalogService#createProduct(Product)}. Valid rows are inserted with JDBC batches,
+ * one transaction per batch, so a bad batch only rejects its own rows. With
+ * {@code rewriteBatchedStatements} enabled on the MySQL driver each batch is sent as a single
+ * multi-row INSERT, and the auto-increment IDs of the whole batch are returned at once. When the
+ * driver does not return an ID per row, the batch is rolled back and inserted again one row at a time.
+ * The report lists the first {@value #MAX_REPORTED_ERRORS} rejected rows and counts all of them.
+ */
+@Service
+public class ProductImportService {
+
+    /** Largest batch a client can request. */
+    public static final int MAX_BATCH_SIZE = 10000;
+
+    /** Largest number of rejected rows listed in a report. */
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO product (name, description, stock, price, supplier, category) VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private ProductCatalogService productCatalogService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${flox.products.import.batch-size:1000}")
+    private int defaultBatchSize;
+
+    /**
+     * Import products from a JSON array of product objects.
+     *
+     * @param in JSON array of products.
+     * @param batchSize Number of rows per insert batch, or null for the configured default.
+     * @return Report with the number of imported rows and the rejected ones.
+     * @throws IOException If the upload can not be read or is not a JSON array.
+     */
+    public ProductImportReport importJson(InputStream in, Integer batchSize) throws IOException {
+        ImportRun run = new ImportRun(resolveBatchSize(batchSize));
+        try (JsonParser parser = objectMapper.createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IllegalArgumentException("Expected a JSON array of products.");
+            }
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (token == null) {
+                    throw new IllegalArgumentException("Unexpected end of the JSON array.");
+                }
+                JsonNode node = parser.readValueAsTree();
+                run.row(() -> objectMapper.treeToValue(node, Product.class));
+            }
+        }
+        return run.finish();
+    }
+
+    /**
+     * Import products from CSV. The first record is a header naming the columns
+     * (name, description, stock, price, supplier, category, in any order); unknown columns are ignored.
+     *
+     * @param in CSV text.
+     * @param charset Encoding of the CSV text.
+     * @param batchSize Number of rows per insert batch, or null for the configured default.
+     * @return Report with the number of imported rows and the rejected ones.
+     * @throws IOException If the upload can not be read.
+     */
+    public ProductImportReport importCsv(InputStream in, Charset charset, Integer batchSize) throws IOException {
+        ImportRun run = new ImportRun(resolveBatchSize(batchSize));
+        try (CsvReader csv = new CsvReader(new InputStreamReader(in, charset))) {
+            List<String> header = csv.readRecord();
+            if (header == null) {
+                return run.finish();
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT), i);
+            }
+            if (!columns.containsKey("name")) {
+                throw new IllegalArgumentException("CSV header must contain a 'name' column.");
+            }
+            List<String> record;
+            while ((record = csv.readRecord()) != null) {
+                List<String> fields = record;
+                run.row(() -> csvProduct(fields, columns));
+            }
+        }
+        return run.finish();
+    }
+
+    private int resolveBatchSize(Integer batchSize) {
+        int size = batchSize != null ? batchSize : defaultBatchSize;
+        if (size < 1 || size > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch size must be between 1 and " + MAX_BATCH_SIZE + ".");
+        }
+        return size;
+    }
+
+    private static Product csvProduct(List<String> fields, Map<String, Integer> columns) {
+        Product product = new Product();
+        product.setName(text(fields, columns, "name"));
+        product.setDescription(text(fields, columns, "description"));
+        product.setStock(number(fields, columns, "stock"));
+        product.setPrice(number(fields, columns, "price"));
+        product.setSupplier(text(fields, columns, "supplier"));
+        product.setCategory(text(fields, columns, "category"));
+        return product;
+    }
+
+    private static String text(List<String> fields, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static Float number(List<String> fields, Map<String, Integer> columns, String column) {
+        String value = text(fields, columns, column);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Float.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number in column " + column + ": '" + value + "'.");
+        }
+    }
+
+    /**
+     * Insert a batch of products in one transaction.
+     *
+     * @return the generated IDs, in the order of the products
+     */
+    private List<Long> insertBatch(List<Product> products) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Product product = products.get(i);
+                        ps.setString(1, product.getName());
+                        setNullableString(ps, 2, product.getDescription());
+                        ps.setFloat(3, product.getStock());
+                        ps.setFloat(4, product.getPrice());
+                        setNullableString(ps, 5, product.getSupplier());
+                        setNullableString(ps, 6, product.getCategory());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return products.size();
+                    }
+                },
+                keys);
+        List<Long> ids = new ArrayList<>(products.size());
+        for (Map<String, Object> key : keys.getKeyList()) {
+            ids.add(((Number) key.values().iterator().next()).longValue());
+        }
+        return ids;
+    }
+
+    /**
+     * Insert products one statement at a time, for when a batch did not return its IDs.
+     *
+     * @return the generated IDs, in the order of the products
+     * @throws IllegalStateException if an insert does not return its ID
+     */
+    private List<Long> insertRows(List<Product> products) {
+        List<Long> ids = new ArrayList<>(products.size());
+        for (Product product : products) {
+            KeyHolder key = new GeneratedKeyHolder();
+            jdbcTemplate.update(connection -> {
+                PreparedStatement ps = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS);
+                ps.setString(1, product.getName());
+                setNullableString(ps, 2, product.getDescription());
+                ps.setFloat(3, product.getStock());
+                ps.setFloat(4, product.getPrice());
+                setNullableString(ps, 5, product.getSupplier());
+                setNullableString(ps, 6, product.getCategory());
+                return ps;
+            }, key);
+            if (key.getKey() == null) {
+                throw new IllegalStateException("The database did not return the ID of an imported product.");
+            }
+            ids.add(key.getKey().longValue());
+        }
+        return ids;
+    }
+
+    private static void setNullableString(PreparedStatement ps, int index, String value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.VARCHAR);
+        } else {
+            ps.setString(index, value);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+        Product parse() throws Exception;
+    }
+
+    /**
+     * State of one import: the batch being filled and the running totals.
+     */
+    private class ImportRun {
+
+        private final int batchSize;
+        private final long startedAt = System.nanoTime();
+        private final List<Product> pending = new ArrayList<>();
+        private final List<Long> pendingRows = new ArrayList<>();
+        private final List<ProductImportReport.RowError> errors = new ArrayList<>();
+        private long rows;
+        private long imported;
+        private long failed;
+
+        ImportRun(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        void row(RowParser parser) {
+            rows++;
+            try {
+                Product product = parser.parse();
+                product.setId(null);
+                productCatalogService.validateProduct(product);
+                pending.add(product);
+                pendingRows.add(rows);
+            } catch (Exception e) {
+                reject(rows, e.getMessage());
+            }
+            if (pending.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (pending.isEmpty()) {
+                return;
+            }
+            try {
+                Boolean batched = transactionTemplate.execute(status -> {
+                    List<Long> ids = insertBatch(pending);
+                    if (ids.size() != pending.size()) {
+                        status.setRollbackOnly();
+                        return false;
+                    }
+                    inserted(ids);
+                    return true;
+                });
+                if (!Boolean.TRUE.equals(batched)) {
+                    transactionTemplate.executeWithoutResult(status -> inserted(insertRows(pending)));
+                }
+                imported += pending.size();
+            } catch (DataAccessException e) {
+                String message = "Batch insert failed: " + e.getMostSpecificCause().getMessage();
+                for (Long row : pendingRows) {
+                    reject(row, message);
+                }
+            }
+            pending.clear();
+            pendingRows.clear();
+        }
+
+        /**
+         * Publish the inserted products, in the transaction that inserted them.
+         */
+        private void inserted(List<Long> ids) {
+            for (int i = 0; i < pending.size(); i++) {
+                Product product = pending.get(i);
+                product.setId(ids.get(i));
+                eventPublisher.publishEvent(new ProductChangedEvent(product, true));
+            }
+        }
+
+        private void reject(long row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ProductImportReport.RowError(row, message));
+            }
+        }
+
+        ProductImportReport finish() {
+            flush();
+            long elapsedMillis = (System.nanoTime() - startedAt) / 1_000_000;
+            return new ProductImportReport(rows, imported, failed, elapsedMillis, errors);
+        }
+    }
+}
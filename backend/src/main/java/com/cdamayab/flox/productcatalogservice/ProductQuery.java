@@ -0,0 +1,71 @@
+package com.cdamayab.flox.productcatalogservice;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.function.Function;
+
+/**
+ * Filters and ordering of a product query. Every filter is optional; null filters are left out
+ * of the generated statement.
+ *
+ * @param category   only products of this category
+ * @param supplier   only products of this supplier
+ * @param minPrice   only products with at least this price
+ * @param maxPrice   only products with at most this price
+ * @param stockBelow only products with less stock than this
+ * @param namePrefix only products whose name starts with this text
+ * @param sort       column the results are ordered by, ties broken by ID
+ * @param direction  direction of the ordering
+ */
+public record ProductQuery(
+        String category,
+        String supplier,
+        Float minPrice,
+        Float maxPrice,
+        Float stockBelow,
+        String namePrefix,
+        SortField sort,
+        Sort.Direction direction) {
+
+    /**
+     * Columns a product query can be ordered by.
+     */
+    public enum SortField {
+        PRICE("price", Product::getPrice),
+        NAME("name", Product::getName),
+        STOCK("stock", Product::getStock),
+        ID("id", Product::getId);
+
+        private final String column;
+        private final Function<Product, Object> key;
+
+        SortField(String column, Function<Product, Object> key) {
+            this.column = column;
+            this.key = key;
+        }
+
+        String column() {
+            return column;
+        }
+
+        /**
+         * @return the value of this column in the given product, as stored in a cursor
+         */
+        String keyOf(Product product) {
+            Object value = key.apply(product);
+            // Floats are widened to the exact double the seek query compares against the FLOAT column
+            return value instanceof Float number ? Double.toString(number.doubleValue()) : String.valueOf(value);
+        }
+
+        /**
+         * @return a cursor value converted to the type bound against this column
+         */
+        Object parseKey(String value) {
+            return switch (this) {
+                case PRICE, STOCK -> Double.valueOf(value);
+                case NAME -> value;
+                case ID -> Long.valueOf(value);
+            };
+        }
+    }
+}
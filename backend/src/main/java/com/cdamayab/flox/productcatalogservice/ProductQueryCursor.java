@@ -0,0 +1,51 @@
+package com.cdamayab.flox.productcatalogservice;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in the results of a {@link ProductQuery}, encoded for clients as an opaque string.
+ * It records the sort column, so a cursor can not be replayed against a query ordered differently.
+ *
+ * @param sort column the results are ordered by
+ * @param key  value of the sort column in the last product returned
+ * @param id   ID of the last product returned, breaks ties between equal keys
+ */
+record ProductQueryCursor(ProductQuery.SortField sort, Object key, long id) {
+
+    /**
+     * Cursor pointing right after the given product.
+     *
+     * @param sort    column the results are ordered by
+     * @param product last product of a page
+     * @return the encoded cursor
+     */
+    static String after(ProductQuery.SortField sort, Product product) {
+        String raw = sort.name() + ":" + product.getId() + ":" + sort.keyOf(product);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor previously returned to a client.
+     *
+     * @param cursor encoded cursor, or null for the first page
+     * @param sort   column the query is ordered by
+     * @return the decoded position, or null for the first page
+     * @throws IllegalArgumentException If the cursor is malformed or belongs to a query with another order.
+     */
+    static ProductQueryCursor decode(String cursor, ProductQuery.SortField sort) {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split(":", 3);
+            if (ProductQuery.SortField.valueOf(parts[0]) != sort) {
+                throw new IllegalArgumentException();
+            }
+            return new ProductQueryCursor(sort, sort.parseKey(parts[2]), Long.parseLong(parts[1]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -2,16 +2,26 @@ package com.cdamayab.flox.productcatalogservice;
 
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for managing Product entities in the database.
  * Extends JpaRepository to provide CRUD operations and custom query methods.
  */
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
 
     /**
      * Finds all products that belong to a specific category.
@@ -46,6 +56,48 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      */
     List<Product> findByPriceBetween(Float minPrice, Float maxPrice);
 
+    // Summary projections: only the listed columns are selected, straight into records
+
+    /**
+     * Finds the summary of every product.
+     *
+     * @param sort the order of the results
+     * @return the summaries of all products
+     */
+    @Query("SELECT new com.cdamayab.flox.productcatalogservice.ProductSummary(p.id, p.name, p.price, p.stock) FROM Product p")
+    List<ProductSummary> findAllSummaries(Sort sort);
+
+    /**
+     * Finds the summaries of the products of a category.
+     *
+     * @param category the category to filter products by
+     * @return the summaries of the products in the given category
+     */
+    @Query("SELECT new com.cdamayab.flox.productcatalogservice.ProductSummary(p.id, p.name, p.price, p.stock) "
+            + "FROM Product p WHERE p.category = :category")
+    List<ProductSummary> findSummariesByCategory(@Param("category") String category);
+
+    /**
+     * Finds the summaries of the products of a supplier.
+     *
+     * @param supplier the supplier to filter products by
+     * @return the summaries of the products supplied by the given supplier
+     */
+    @Query("SELECT new com.cdamayab.flox.productcatalogservice.ProductSummary(p.id, p.name, p.price, p.stock) "
+            + "FROM Product p WHERE p.supplier = :supplier")
+    List<ProductSummary> findSummariesBySupplier(@Param("supplier") String supplier);
+
+    /**
+     * Finds the summaries of the products whose price falls within the specified range.
+     *
+     * @param minPrice the minimum price (inclusive)
+     * @param maxPrice the maximum price (inclusive)
+     * @return the summaries of the products within the specified price range
+     */
+    @Query("SELECT new com.cdamayab.flox.productcatalogservice.ProductSummary(p.id, p.name, p.price, p.stock) "
+            + "FROM Product p WHERE p.price BETWEEN :minPrice AND :maxPrice")
+    List<ProductSummary> findSummariesByPriceBetween(@Param("minPrice") Float minPrice, @Param("maxPrice") Float maxPrice);
+
     /**
      * Searches for products by name, ignoring case.
      *
@@ -72,9 +124,195 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByStockLessThan(Float stock);
 
     /**
-     * Deletes all products in the specified category.
+     * Streams every product ordered by ID without materializing the result list.
+     * The fetch size of Integer.MIN_VALUE makes the MySQL driver stream rows one by one instead of
+     * buffering the whole result set. Must be consumed inside a read-only transaction and closed.
+     *
+     * @return a stream over all products
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "-2147483648"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT p FROM Product p ORDER BY p.id")
+    Stream<Product> streamAll();
+
+    // Keyset pagination
+    //
+    // Each page is read with a seek predicate on (price, id) instead of OFFSET, so the cost of a page does
+    // not depend on how deep it is. The queries are native so the cursor price is bound as a double and
+    // compares exactly against the FLOAT column. Products without a price are not part of these listings.
+
+    /**
+     * Finds the products that come after the given position when ordering by price and ID ascending.
+     *
+     * @param price price of the last product already returned
+     * @param id    ID of the last product already returned
+     * @param limit maximum number of products to return
+     * @return the next products in (price, id) ascending order
+     */
+    @Query(value = "SELECT * FROM product p WHERE p.price >= :price AND (p.price > :price OR p.id > :id) "
+            + "ORDER BY p.price ASC, p.id ASC LIMIT :limit", nativeQuery = true)
+    List<Product> findPageAfter(@Param("price") double price, @Param("id") long id, @Param("limit") int limit);
+
+    /**
+     * Finds the products that come after the given position when ordering by price and ID descending.
+     *
+     * @param price price of the last product already returned
+     * @param id    ID of the last product already returned
+     * @param limit maximum number of products to return
+     * @return the next products in (price, id) descending order
+     */
+    @Query(value = "SELECT * FROM product p WHERE p.price <= :price AND (p.price < :price OR p.id < :id) "
+            + "ORDER BY p.price DESC, p.id DESC LIMIT :limit", nativeQuery = true)
+    List<Product> findPageBefore(@Param("price") double price, @Param("id") long id, @Param("limit") int limit);
+
+    /**
+     * Finds the products of a category that come after the given position, ordered by price and ID.
+     *
+     * @param category the category to filter by
+     * @param price    price of the last product already returned
+     * @param id       ID of the last product already returned
+     * @param limit    maximum number of products to return
+     * @return the next products of the category in (price, id) ascending order
+     */
+    @Query(value = "SELECT * FROM product p WHERE p.category = :category "
+            + "AND p.price >= :price AND (p.price > :price OR p.id > :id) "
+            + "ORDER BY p.price ASC, p.id ASC LIMIT :limit", nativeQuery = true)
+    List<Product> findPageByCategoryAfter(@Param("category") String category,
+            @Param("price") double price, @Param("id") long id, @Param("limit") int limit);
+
+    /**
+     * Finds the products of a supplier that come after the given position, ordered by price and ID.
+     *
+     * @param supplier the supplier to filter by
+     * @param price    price of the last product already returned
+     * @param id       ID of the last product already returned
+     * @param limit    maximum number of products to return
+     * @return the next products of the supplier in (price, id) ascending order
+     */
+    @Query(value = "SELECT * FROM product p WHERE p.supplier = :supplier "
+            + "AND p.price >= :price AND (p.price > :price OR p.id > :id) "
+            + "ORDER BY p.price ASC, p.id ASC LIMIT :limit", nativeQuery = true)
+    List<Product> findPageBySupplierAfter(@Param("supplier") String supplier,
+            @Param("price") double price, @Param("id") long id, @Param("limit") int limit);
+
+    /**
+     * Finds the products within a price range that come after the given position, ordered by price and ID.
+     *
+     * @param minPrice the minimum price (inclusive)
+     * @param maxPrice the maximum price (inclusive)
+     * @param price    price of the last product already returned
+     * @param id       ID of the last product already returned
+     * @param limit    maximum number of products to return
+     * @return the next products within the range in (price, id) ascending order
+     */
+    @Query(value = "SELECT * FROM product p WHERE p.price BETWEEN :minPrice AND :maxPrice "
+            + "AND p.price >= :price AND (p.price > :price OR p.id > :id) "
+            + "ORDER BY p.price ASC, p.id ASC LIMIT :limit", nativeQuery = true)
+    List<Product> findPageByPriceBetweenAfter(@Param("minPrice") Float minPrice, @Param("maxPrice") Float maxPrice,
+            @Param("price") double price, @Param("id") long id, @Param("limit") int limit);
+
+    // Set-based bulk operations
+    //
+    // Each modification runs as one statement in the database, without loading or managing the entities.
+    // The rows of a category or supplier are first locked by ID, then modified by those IDs, so the
+    // statement and the event telling the in-memory views which rows were affected cover the same rows.
+
+    /**
+     * Locks the products of a category until the end of the transaction, in ID order.
+     * Rows committed into the category by another transaction are seen, unlike a plain snapshot read.
+     *
+     * @param category the category to filter by
+     * @return the IDs of the locked products
+     */
+    @Query(value = "SELECT p.id FROM product p WHERE p.category = :category ORDER BY p.id FOR UPDATE", nativeQuery = true)
+    List<Long> lockIdsByCategory(@Param("category") String category);
+
+    /**
+     * Locks the products of a supplier until the end of the transaction, in ID order.
+     *
+     * @param supplier the supplier to filter by
+     * @return the IDs of the locked products
+     */
+    @Query(value = "SELECT p.id FROM product p WHERE p.supplier = :supplier ORDER BY p.id FOR UPDATE", nativeQuery = true)
+    List<Long> lockIdsBySupplier(@Param("supplier") String supplier);
+
+    /**
+     * Finds which of the given IDs exist.
+     *
+     * @param ids the IDs to check
+     * @return the IDs that belong to existing products
+     */
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Deletes a product with a single statement.
+     *
+     * @param id the ID of the product
+     * @return the number of deleted rows, 0 if the product does not exist
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Product p WHERE p.id = :id")
+    int deleteOneById(@Param("id") Long id);
+
+    /**
+     * Deletes the products with the given IDs with a single statement.
+     *
+     * @param ids the IDs of the products to delete
+     * @return the number of deleted rows
+     */
+    @Modifying
+    @Query("DELETE FROM Product p WHERE p.id IN :ids")
+    int deleteAllByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Multiplies the price of the products with the given IDs with a single statement.
+     *
+     * @param ids    the IDs of the products whose prices should change
+     * @param factor the multiplier, e.g. 1.05 for a 5% increase
+     * @return the number of updated rows
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.price = p.price * :factor, p.version = p.version + 1 WHERE p.id IN :ids")
+    int scalePriceByIdIn(@Param("ids") Collection<Long> ids, @Param("factor") Float factor);
+
+    /**
+     * Adds a quantity to the stock of the products with the given IDs with a single statement.
+     * Stock that would become negative is set to zero.
+     *
+     * @param ids   the IDs of the products whose stock should change
+     * @param delta the quantity to add, negative to remove
+     * @return the number of updated rows
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = CASE WHEN p.stock + :delta < 0 THEN 0 ELSE p.stock + :delta END, "
+            + "p.version = p.version + 1 "
+            + "WHERE p.id IN :ids")
+    int adjustStockByIdIn(@Param("ids") Collection<Long> ids, @Param("delta") Float delta);
+
+    /**
+     * Takes a quantity out of a product's stock in a single conditional statement.
+     * The row lock is only held for the statement, and the stock can never go below zero.
+     *
+     * @param id the ID of the product
+     * @param quantity the quantity to reserve
+     * @return 1 if the stock was decremented, 0 if the product does not exist or has not enough stock
+     */
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock - :quantity, p.version = p.version + 1 WHERE p.id = :id AND p.stock >= :quantity")
+    int reserveStock(@Param("id") Long id, @Param("quantity") Float quantity);
+
+    /**
+     * Puts a quantity back into a product's stock in a single statement.
      *
-     * @param category the category whose products should be deleted
+     * @param id the ID of the product
+     * @param quantity the quantity to release
+     * @return 1 if the stock was incremented, 0 if the product does not exist
      */
-    void deleteByCategory(String category);
+    @Modifying
+    @Query("UPDATE Product p SET p.stock = p.stock + :quantity, p.version = p.version + 1 WHERE p.id = :id")
+    int releaseStock(@Param("id") Long id, @Param("quantity") Float quantity);
 }
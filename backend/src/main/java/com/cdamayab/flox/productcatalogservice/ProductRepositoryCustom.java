@@ -0,0 +1,30 @@
+package com.cdamayab.flox.productcatalogservice;
+
+import java.util.List;
+
+/**
+ * Custom queries of {@link ProductRepository} that can not be expressed as derived or annotated queries.
+ */
+public interface ProductRepositoryCustom {
+
+    /**
+     * Updates only the non-null fields of {@code changes} with a single UPDATE statement,
+     * without reading the product first.
+     *
+     * @param id      the ID of the product to update
+     * @param changes the fields to write; null fields are left unchanged
+     * @return the number of updated rows, 0 if the product does not exist
+     */
+    int patch(Long id, Product changes);
+
+    /**
+     * Finds the products matching a query with a single statement built from the filters that are set,
+     * seeking past the given position instead of skipping rows.
+     *
+     * @param query the filters and ordering
+     * @param after position of the last product already returned, or null for the first page
+     * @param limit maximum number of products to return
+     * @return the next matching products, in the order of the query
+     */
+    List<Product> findPage(ProductQuery query, ProductQueryCursor after, int limit);
+}
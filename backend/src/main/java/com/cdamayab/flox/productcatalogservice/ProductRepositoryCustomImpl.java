@@ -0,0 +1,110 @@
+package com.cdamayab.flox.productcatalogservice;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementation of {@link ProductRepositoryCustom}, picked up by Spring Data as a repository fragment.
+ */
+class ProductRepositoryCustomImpl implements ProductRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int patch(Long id, Product changes) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Product> update = cb.createCriteriaUpdate(Product.class);
+        Root<Product> product = update.from(Product.class);
+
+        if (changes.getName()        != null) update.set(product.<String>get("name"), changes.getName());
+        if (changes.getDescription() != null) update.set(product.<String>get("description"), changes.getDescription());
+        if (changes.getStock()       != null) update.set(product.<Float>get("stock"), changes.getStock());
+        if (changes.getPrice()       != null) update.set(product.<Float>get("price"), changes.getPrice());
+        if (changes.getSupplier()    != null) update.set(product.<String>get("supplier"), changes.getSupplier());
+        if (changes.getCategory()    != null) update.set(product.<String>get("category"), changes.getCategory());
+
+        update.set(product.<Long>get("version"), cb.sum(product.<Long>get("version"), 1L));
+
+        update.where(cb.equal(product.get("id"), id));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<Product> findPage(ProductQuery query, ProductQueryCursor after, int limit) {
+        List<String> conditions = new ArrayList<>();
+        Map<String, Object> parameters = new LinkedHashMap<>();
+
+        // Equality filters first: they form the leading columns of the composite indexes
+        if (query.category() != null) {
+            conditions.add("p.category = :category");
+            parameters.put("category", query.category());
+        }
+        if (query.supplier() != null) {
+            conditions.add("p.supplier = :supplier");
+            parameters.put("supplier", query.supplier());
+        }
+        if (query.minPrice() != null) {
+            conditions.add("p.price >= :minPrice");
+            parameters.put("minPrice", query.minPrice());
+        }
+        if (query.maxPrice() != null) {
+            conditions.add("p.price <= :maxPrice");
+            parameters.put("maxPrice", query.maxPrice());
+        }
+        if (query.stockBelow() != null) {
+            conditions.add("p.stock < :stockBelow");
+            parameters.put("stockBelow", query.stockBelow());
+        }
+        if (query.namePrefix() != null) {
+            // A prefix LIKE without leading wildcard is an index range scan
+            conditions.add("p.name LIKE :namePrefix ESCAPE '!'");
+            parameters.put("namePrefix", query.namePrefix().replaceAll("[!%_]", "!$0") + "%");
+        }
+
+        String column = "p." + query.sort().column();
+        String direction = query.direction().isAscending() ? "ASC" : "DESC";
+        if (query.sort() != ProductQuery.SortField.ID) {
+            conditions.add(column + " IS NOT NULL");
+        }
+        if (after != null) {
+            String comparison = query.direction().isAscending() ? ">" : "<";
+            if (query.sort() == ProductQuery.SortField.ID) {
+                conditions.add("p.id " + comparison + " :afterId");
+            } else {
+                // Same shape as the fixed seek queries: a range on the sort column, refined by ID on ties
+                conditions.add(column + " " + comparison + "= :afterKey AND (" + column + " " + comparison
+                        + " :afterKey OR p.id " + comparison + " :afterId)");
+                parameters.put("afterKey", after.key());
+            }
+            parameters.put("afterId", after.id());
+        }
+
+        StringBuilder sql = new StringBuilder("SELECT * FROM product p");
+        if (!conditions.isEmpty()) {
+            sql.append(" WHERE ").append(String.join(" AND ", conditions));
+        }
+        sql.append(" ORDER BY ");
+        if (query.sort() != ProductQuery.SortField.ID) {
+            sql.append(column).append(' ').append(direction).append(", ");
+        }
+        sql.append("p.id ").append(direction).append(" LIMIT :limit");
+        parameters.put("limit", limit);
+
+        Query statement = entityManager.createNativeQuery(sql.toString(), Product.class);
+        parameters.forEach(statement::setParameter);
+        return statement.getResultList();
+    }
+}
@@ -0,0 +1,14 @@
+package com.cdamayab.flox.productcatalogservice;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * A product matching a name search, with its relevance score.
+ */
+@Schema(description = "Product matching a search query, ranked by relevance")
+public record ProductSearchHit(
+        @Schema(description = "Unique identifier of the product", example = "101") Long id,
+        @Schema(description = "Name of the product", example = "Wireless Headphones") String name,
+        @Schema(description = "Category of the product", example = "Audio Equipment") String category,
+        @Schema(description = "Relevance score, higher is better", example = "1.75") double score) {
+}
@@ -0,0 +1,446 @@
+package com.cdamayab.flox.productcatalogservice;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram inverted index over product names, used to answer substring searches
+ * without the full table scan of a {@code LIKE '%x%'} query.
+ *
+ * Text is lower-cased and stripped of accents, split into words, and every word is indexed by
+ * its padded trigrams. Query words of three or more characters are looked up by their inner
+ * trigrams so they match anywhere inside a word; shorter words are matched as word prefixes.
+ * Products are ranked by the fraction of query trigrams they contain, with bonuses when the
+ * name actually contains or starts with the query.
+ *
+ * The index is built once the application is ready and kept up to date by the product change
+ * events. Until the build completes, searches fall back to the database.
+ */
+@Component
+public class ProductSearchIndex {
+
+    /** Fraction of the query trigrams a product must contain to be returned. */
+    private static final double MIN_SIMILARITY = 0.5;
+
+    private static final double NAME_MATCH_BONUS    = 1.0;
+    private static final double NAME_PREFIX_BONUS   = 0.5;
+    private static final double DETAILS_MATCH_BONUS = 0.25;
+    private static final double MAX_BONUS           = NAME_MATCH_BONUS + NAME_PREFIX_BONUS;
+
+    /** Orders hits from the least to the most relevant, so a min-heap keeps the best ones. */
+    private static final Comparator<ProductSearchHit> RELEVANCE = Comparator
+            .comparingDouble(ProductSearchHit::score)
+            .thenComparing(ProductSearchHit::id, Comparator.reverseOrder());
+
+    @Autowired
+    private ProductCatalogService productCatalogService;
+
+    /** Also index category and description, at the cost of a larger index. */
+    @Value("${flox.products.search.include-details:false}")
+    private boolean includeDetails;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private final Map<Long, Integer> slotById = new HashMap<>();
+    private final List<Document> documents = new ArrayList<>();
+    private final Posting freeSlots = new Posting(null);
+    private final Map<String, Posting> postings = new HashMap<>();
+    private final Set<Long> changedDuringBuild = new HashSet<>();
+    private final Set<Long> reloadAfterBuild = new HashSet<>();
+
+    private volatile boolean ready;
+
+    /** Per-thread scratch array of trigram match counts, indexed by document slot. */
+    private final ThreadLocal<int[]> matchCounts = ThreadLocal.withInitial(() -> new int[0]);
+
+    /**
+     * Loads every product into the index. Products written with a complete row while the build is
+     * running are indexed from their change events and skipped here, so older rows never overwrite
+     * them. Partial updates of products the build has not indexed yet can not be applied; those
+     * products are read again once the scan is over, until none is left, and only then is the
+     * index ready.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        productCatalogService.forEachProduct(product -> {
+            lock.writeLock().lock();
+            try {
+                if (!changedDuringBuild.contains(product.getId())) {
+                    replace(product);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+        while (true) {
+            List<Long> ids;
+            lock.writeLock().lock();
+            try {
+                ids = new ArrayList<>(reloadAfterBuild);
+                reloadAfterBuild.clear();
+                if (ids.isEmpty()) {
+                    changedDuringBuild.clear();
+                    ready = true;
+                    return;
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+            List<Product> rows = productCatalogService.getProductsByIds(ids);
+            lock.writeLock().lock();
+            try {
+                for (Product row : rows) {
+                    if (!changedDuringBuild.contains(row.getId())) {
+                        replace(row);
+                    }
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Product product = event.product();
+        lock.writeLock().lock();
+        try {
+            if (event.complete()) {
+                if (!ready) {
+                    changedDuringBuild.add(product.getId());
+                }
+                replace(product);
+            } else if (ready || slotById.containsKey(product.getId())) {
+                upsert(product);
+                if (!ready && !changedDuringBuild.contains(product.getId())) {
+                    reloadAfterBuild.add(product.getId()); // The scanned row may predate this update
+                }
+            } else {
+                reloadAfterBuild.add(product.getId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductsDeleted(ProductsDeletedEvent event) {
+        lock.writeLock().lock();
+        try {
+            for (Long id : event.ids()) {
+                if (!ready) {
+                    changedDuringBuild.add(id);
+                }
+                remove(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Searches products by name, ranked by relevance.
+     *
+     * @param query text to search for
+     * @param limit maximum number of results, at least 1
+     * @return the best matching products, most relevant first
+     * @throws IllegalArgumentException if the limit is lower than 1
+     */
+    public List<ProductSearchHit> search(String query, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be at least 1.");
+        }
+        if (!ready) {
+            return productCatalogService.searchProductsByName(query).stream()
+                    .limit(limit)
+                    .map(product -> new ProductSearchHit(product.getId(), product.getName(), product.getCategory(), 1.0))
+                    .toList();
+        }
+
+        String normalizedQuery = normalize(query);
+        Set<String> queryGrams = queryTrigrams(normalizedQuery);
+        if (queryGrams.isEmpty()) {
+            return List.of();
+        }
+        // Short queries have too few trigrams for a partial match to mean anything
+        int minMatches = Math.max((int) Math.ceil(queryGrams.size() * MIN_SIMILARITY), Math.min(queryGrams.size(), 3));
+
+        lock.readLock().lock();
+        try {
+            int[] counts = matchCounts(documents.size());
+            Posting touched = new Posting(null);
+            for (String gram : queryGrams) {
+                Posting posting = postings.get(gram);
+                if (posting == null) {
+                    continue;
+                }
+                for (int i = 0; i < posting.size; i++) {
+                    int slot = posting.slots[i];
+                    if (counts[slot]++ == 0) {
+                        touched.add(slot);
+                    }
+                }
+            }
+
+            PriorityQueue<ProductSearchHit> best = new PriorityQueue<>(limit, RELEVANCE);
+            for (int i = 0; i < touched.size; i++) {
+                int slot = touched.slots[i];
+                int matches = counts[slot];
+                counts[slot] = 0;
+                if (matches < minMatches) {
+                    continue;
+                }
+                double similarity = (double) matches / queryGrams.size();
+                ProductSearchHit weakest = best.size() == limit ? best.peek() : null;
+                if (weakest != null && similarity + MAX_BONUS < weakest.score()) {
+                    continue; // Can not make it into the results, skip the string comparisons
+                }
+                Document document = documents.get(slot);
+                ProductSearchHit hit = new ProductSearchHit(document.id, document.name, document.category,
+                        similarity + bonus(document, normalizedQuery));
+                if (weakest == null) {
+                    best.offer(hit);
+                } else if (RELEVANCE.compare(hit, weakest) > 0) {
+                    best.poll();
+                    best.offer(hit);
+                }
+            }
+
+            List<ProductSearchHit> hits = new ArrayList<>(best);
+            hits.sort(RELEVANCE.reversed());
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return true once the initial build has completed
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    private double bonus(Document document, String normalizedQuery) {
+        if (document.normalizedName.startsWith(normalizedQuery)) {
+            return NAME_MATCH_BONUS + NAME_PREFIX_BONUS;
+        }
+        if (document.normalizedName.contains(normalizedQuery)) {
+            return NAME_MATCH_BONUS;
+        }
+        if (document.normalizedDetails.contains(normalizedQuery)) {
+            return DETAILS_MATCH_BONUS;
+        }
+        return 0.0;
+    }
+
+    private int[] matchCounts(int capacity) {
+        int[] counts = matchCounts.get();
+        if (counts.length < capacity) {
+            counts = new int[Math.max(capacity, counts.length * 2)];
+            matchCounts.set(counts);
+        }
+        return counts;
+    }
+
+    // Index maintenance, called with the write lock held
+
+    private void upsert(Product changes) {
+        Integer slot = slotById.get(changes.getId());
+        Document previous = slot == null ? null : documents.get(slot);
+        if (previous != null) {
+            unlink(previous);
+        }
+
+        String name        = pick(changes.getName(), previous == null ? null : previous.name);
+        String category    = pick(changes.getCategory(), previous == null ? null : previous.category);
+        String description = includeDetails ? pick(changes.getDescription(), previous == null ? null : previous.description) : null;
+
+        String normalizedName    = normalize(name);
+        String normalizedDetails = includeDetails ? normalize(pick(category, "") + " " + pick(description, "")) : "";
+
+        Set<String> grams = documentTrigrams(normalizedName);
+        if (includeDetails) {
+            grams.addAll(documentTrigrams(normalizedDetails));
+        }
+
+        if (slot == null) {
+            slot = freeSlots.size > 0 ? freeSlots.slots[--freeSlots.size] : documents.size();
+            if (slot == documents.size()) {
+                documents.add(null);
+            }
+            slotById.put(changes.getId(), slot);
+        }
+
+        Posting[] linked = new Posting[grams.size()];
+        int[] positions = new int[grams.size()];
+        int i = 0;
+        for (String gram : grams) {
+            Posting posting = postings.computeIfAbsent(gram, Posting::new);
+            positions[i] = posting.add(slot, i);
+            linked[i++] = posting;
+        }
+        documents.set(slot, new Document(changes.getId(), name, category, description, normalizedName, normalizedDetails,
+                linked, positions));
+    }
+
+    private void replace(Product product) {
+        remove(product.getId());
+        upsert(product);
+    }
+
+    private void remove(Long id) {
+        Integer slot = slotById.remove(id);
+        if (slot == null) {
+            return;
+        }
+        unlink(documents.get(slot));
+        documents.set(slot, null);
+        freeSlots.add(slot);
+    }
+
+    /**
+     * Removes a document from its postings. The last entry of each posting takes the place of the removed
+     * one, and the position kept by the document of that entry is updated, so no posting is scanned.
+     */
+    private void unlink(Document document) {
+        for (int k = 0; k < document.postings.length; k++) {
+            Posting posting = document.postings[k];
+            int position = document.positions[k];
+            int last = --posting.size;
+            if (position != last) {
+                int movedSlot = posting.slots[last];
+                int movedLink = posting.links[last];
+                posting.slots[position] = movedSlot;
+                posting.links[position] = movedLink;
+                documents.get(movedSlot).positions[movedLink] = position;
+            }
+            if (posting.size == 0) {
+                postings.remove(posting.gram);
+            }
+        }
+    }
+
+    private static String pick(String value, String fallback) {
+        return value != null ? value : fallback;
+    }
+
+    // Text processing
+
+    /**
+     * Lower-cases the text, strips accents and replaces runs of non alphanumeric characters by one space.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(decomposed.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                if (pendingSpace && sb.length() > 0) {
+                    sb.append(' ');
+                }
+                sb.append(Character.toLowerCase(c));
+                pendingSpace = false;
+            } else {
+                pendingSpace = true;
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Trigrams of every word padded with two leading spaces and one trailing space.
+     */
+    static Set<String> documentTrigrams(String normalized) {
+        Set<String> grams = new HashSet<>();
+        for (String word : words(normalized)) {
+            addWindows("  " + word + " ", grams);
+        }
+        return grams;
+    }
+
+    /**
+     * Inner trigrams of words of three or more characters, leading padded trigrams of shorter words.
+     */
+    static Set<String> queryTrigrams(String normalized) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (String word : words(normalized)) {
+            addWindows(word.length() >= 3 ? word : "  " + word, grams);
+        }
+        return grams;
+    }
+
+    private static List<String> words(String normalized) {
+        return normalized.isEmpty() ? List.of() : Arrays.asList(normalized.split(" "));
+    }
+
+    private static void addWindows(String text, Set<String> grams) {
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            grams.add(text.substring(i, i + 3));
+        }
+    }
+
+    /**
+     * Indexed product. {@code positions[k]} is the index of the document's entry in {@code postings[k]}.
+     */
+    private record Document(long id, String name, String category, String description,
+                            String normalizedName, String normalizedDetails, Posting[] postings, int[] positions) {
+    }
+
+    /**
+     * Unordered, growable list of document slots containing one trigram. Next to each slot, {@code links}
+     * keeps the index of this posting in the document's own postings, to update its position when it moves.
+     */
+    private static final class Posting {
+        final String gram;
+        int[] slots = new int[4];
+        int[] links = new int[4];
+        int size;
+
+        Posting(String gram) {
+            this.gram = gram;
+        }
+
+        int add(int slot) {
+            return add(slot, 0);
+        }
+
+        /**
+         * @return the index of the new entry
+         */
+        int add(int slot, int link) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                links = Arrays.copyOf(links, size * 2);
+            }
+            slots[size] = slot;
+            links[size] = link;
+            return size++;
+        }
+    }
+}
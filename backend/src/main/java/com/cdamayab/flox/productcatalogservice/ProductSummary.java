@@ -0,0 +1,15 @@
+package com.cdamayab.flox.productcatalogservice;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Narrow read-only view of a product for list screens, selected directly into this record
+ * without loading {@link Product} entities.
+ */
+@Schema(description = "Summary of a product: identifier, name, price and stock")
+public record ProductSummary(
+        @Schema(description = "Unique identifier for the product", example = "101") Long id,
+        @Schema(description = "Name of the product", example = "Wireless Headphones") String name,
+        @Schema(description = "Price of the product in local currency", example = "5000.00") Float price,
+        @Schema(description = "Stock available for the product", example = "150") Float stock) {
+}
@@ -0,0 +1,15 @@
+package com.cdamayab.flox.productcatalogservice;
+
+import java.util.Collection;
+
+/**
+ * Published by {@link ProductCatalogService} after a set-based price or stock adjustment.
+ * The new price of each product is its old price times {@code priceFactor}; the new stock is its
+ * old stock plus {@code stockDelta}, floored at zero.
+ *
+ * @param ids         IDs of the adjusted products
+ * @param priceFactor multiplier applied to the price, 1 when the price did not change
+ * @param stockDelta  quantity added to the stock, 0 when the stock did not change
+ */
+public record ProductsAdjustedEvent(Collection<Long> ids, float priceFactor, float stockDelta) {
+}
@@ -0,0 +1,11 @@
+package com.cdamayab.flox.productcatalogservice;
+
+import java.util.Collection;
+
+/**
+ * Published by {@link ProductCatalogService} after one or more products are deleted.
+ *
+ * @param ids IDs of the deleted products
+ */
+public record ProductsDeletedEvent(Collection<Long> ids) {
+}
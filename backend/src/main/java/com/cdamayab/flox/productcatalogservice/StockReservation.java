@@ -0,0 +1,12 @@
+package com.cdamayab.flox.productcatalogservice;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Quantity of a product to reserve or release.
+ */
+@Schema(description = "Quantity of a product to reserve or release")
+public record StockReservation(
+        @Schema(description = "Unique identifier of the product", example = "4") Long productId,
+        @Schema(description = "Quantity to reserve or release", example = "2") Float quantity) {
+}
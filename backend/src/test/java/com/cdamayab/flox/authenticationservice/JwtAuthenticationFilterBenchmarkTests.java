@@ -0,0 +1,218 @@
+package com.cdamayab.flox.authenticationservice;
+
+import com.cdamayab.flox.common.BoundedCache;
+import io.jsonwebtoken.Jwts;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Overhead of {@link JwtAuthenticationFilter} per request, verifying the token from scratch with a new
+ * parser as the filter used to, against the shared parser and the verified-token cache, cost of the
+ * revocation check, and throughput of the cache when many request threads verify tokens at once.
+ * Does not need the database; run with {@code FLOX_BENCHMARK=true gradle test}.
+ */
+@EnabledIfEnvironmentVariable(named = "FLOX_BENCHMARK", matches = "true")
+class JwtAuthenticationFilterBenchmarkTests {
+
+    private static final int TOKENS = 100;
+    private static final int REQUESTS = 200_000;
+    private static final int REVOKED = 10_000;
+    private static final int THREADS = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void filterOverheadBeforeAndAfterCaching() throws ServletException, IOException {
+        JwtTokens jwtTokens = new JwtTokens();
+        ReflectionTestUtils.setField(jwtTokens, "cacheMaxSize", TOKENS * 2);
+        ReflectionTestUtils.setField(jwtTokens, "cacheTtl", Duration.ofMinutes(5));
+        jwtTokens.init();
+
+        String[] tokens = new String[TOKENS];
+        Date now = new Date();
+        Date expiry = new Date(now.getTime() + Duration.ofHours(2).toMillis());
+        for (int i = 0; i < TOKENS; i++) {
+            tokens[i] = jwtTokens.generate("benchmark-user-" + i, now, expiry);
+        }
+
+        // Warm up both paths before measuring
+        measure(tokens, REQUESTS / 10, JwtAuthenticationFilterBenchmarkTests::parseWithNewParser);
+        measure(tokens, REQUESTS / 10, token -> jwtTokens.verify(token).subject());
+
+        double before = measure(tokens, REQUESTS, JwtAuthenticationFilterBenchmarkTests::parseWithNewParser);
+        double after = measure(tokens, REQUESTS, token -> jwtTokens.verify(token).subject());
+
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter(jwtTokens, newTokenRevocations());
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+            request.addHeader("Authorization", "Bearer " + tokens[i % TOKENS]);
+            FilterChain chain = new MockFilterChain();
+            filter.doFilter(request, new MockHttpServletResponse(), chain);
+            SecurityContextHolder.clearContext();
+        }
+        double filterMicros = (System.nanoTime() - startedAt) / 1e3 / REQUESTS;
+
+        System.out.printf("JWT verification: %d requests over %d tokens, %.2f us/request with a new parser, "
+                        + "%.2f us/request cached (%.1fx), %.2f us/request through the filter, cache hit rate %.4f%n",
+                REQUESTS, TOKENS, before, after, before / after, filterMicros, jwtTokens.getCacheStats().getHitRate());
+
+        assertEquals("benchmark-user-0", jwtTokens.verify(tokens[0]).subject());
+        assertTrue(after < before);
+    }
+
+    @Test
+    void cachedVerificationUnderConcurrency() throws Exception {
+        JwtTokens jwtTokens = new JwtTokens();
+        ReflectionTestUtils.setField(jwtTokens, "cacheMaxSize", TOKENS * 2);
+        ReflectionTestUtils.setField(jwtTokens, "cacheTtl", Duration.ofMinutes(5));
+        jwtTokens.init();
+
+        String[] tokens = new String[TOKENS];
+        Date now = new Date();
+        Date expiry = new Date(now.getTime() + Duration.ofHours(2).toMillis());
+        for (int i = 0; i < TOKENS; i++) {
+            tokens[i] = jwtTokens.generate("benchmark-user-" + i, now, expiry);
+        }
+
+        // The lookups of the previous cache: the same hash, then a synchronized LinkedHashMap
+        BoundedCache<String, JwtTokens.VerifiedToken> locked = new BoundedCache<>(TOKENS * 2, Duration.ofMinutes(5));
+        Function<String, String> lockedVerify = token -> {
+            String hash = JwtTokens.hash(token);
+            JwtTokens.VerifiedToken cached = locked.get(hash);
+            if (cached == null) {
+                cached = jwtTokens.verify(token);
+                locked.put(hash, cached);
+            }
+            return cached.subject();
+        };
+        Function<String, String> clockVerify = token -> jwtTokens.verify(token).subject();
+
+        // Warm up both caches before measuring
+        measureConcurrently(tokens, REQUESTS / 10, lockedVerify);
+        measureConcurrently(tokens, REQUESTS / 10, clockVerify);
+
+        double lockedNanos = measureConcurrently(tokens, REQUESTS, lockedVerify);
+        double clockNanos = measureConcurrently(tokens, REQUESTS, clockVerify);
+
+        System.out.printf("Concurrent JWT verification: %d threads x %d requests over %d tokens, "
+                        + "%.1f ns/request with the locked cache, %.1f ns/request with the clock cache (%.1fx), cache hit rate %.4f%n",
+                THREADS, REQUESTS, TOKENS, lockedNanos, clockNanos, lockedNanos / clockNanos, jwtTokens.getCacheStats().getHitRate());
+
+        assertTrue(jwtTokens.getCacheStats().getHitRate() > 0.99);
+    }
+
+    @Test
+    void revocationCheckWithManyRevokedTokens() {
+        TokenRevocations revocations = newTokenRevocations();
+        long expiresAt = System.currentTimeMillis() + Duration.ofHours(2).toMillis();
+        for (int i = 0; i < REVOKED; i++) {
+            revocations.remember(UUID.randomUUID().toString(), expiresAt);
+        }
+        String revoked = UUID.randomUUID().toString();
+        revocations.remember(revoked, expiresAt);
+        String[] valid = new String[TOKENS];
+        for (int i = 0; i < TOKENS; i++) {
+            valid[i] = UUID.randomUUID().toString();
+        }
+
+        // Warm up before measuring
+        int found = 0;
+        for (int i = 0; i < REQUESTS * 50; i++) {
+            found += revocations.isRevoked(valid[i % TOKENS], expiresAt) ? 1 : 0;
+        }
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < REQUESTS; i++) {
+            found += revocations.isRevoked(valid[i % TOKENS], expiresAt) ? 1 : 0;
+        }
+        double nanos = (double) (System.nanoTime() - startedAt) / REQUESTS;
+
+        RevocationStats stats = revocations.getStats();
+        System.out.printf("Revocation check: %d revoked tokens, %.1f ns/check of a valid token, "
+                        + "%d Bloom hits, %d false positives in %d checks%n",
+                stats.revoked(), nanos, stats.bloomHits(), stats.falsePositives(), stats.checks());
+
+        assertEquals(0, found);
+        assertTrue(revocations.isRevoked(revoked, expiresAt));
+    }
+
+    private static TokenRevocations newTokenRevocations() {
+        TokenRevocations revocations = new TokenRevocations();
+        ReflectionTestUtils.setField(revocations, "window", Duration.ofHours(1));
+        ReflectionTestUtils.setField(revocations, "expectedPerWindow", REVOKED);
+        ReflectionTestUtils.setField(revocations, "falsePositiveRate", 0.01);
+        revocations.init();
+        return revocations;
+    }
+
+    private static String parseWithNewParser(String token) {
+        return Jwts.parserBuilder()
+                .setSigningKey(AuthenticationService.SECRET_KEY.getBytes(StandardCharsets.UTF_8))
+                .build()
+                .parseClaimsJws(token)
+                .getBody()
+                .getSubject();
+    }
+
+    /**
+     * @return mean wall-clock nanoseconds per verification, all threads together
+     */
+    private static double measureConcurrently(String[] tokens, int requestsPerThread, Function<String, String> verify) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            Future<?>[] runs = new Future<?>[THREADS];
+            long startedAt = System.nanoTime();
+            for (int t = 0; t < THREADS; t++) {
+                // Each thread walks the tokens from its own starting point
+                String[] rotated = new String[tokens.length];
+                for (int i = 0; i < tokens.length; i++) {
+                    rotated[i] = tokens[(i + t * 7) % tokens.length];
+                }
+                runs[t] = pool.submit(() -> measure(rotated, requestsPerThread, verify));
+            }
+            for (Future<?> run : runs) {
+                run.get();
+            }
+            return (double) (System.nanoTime() - startedAt) / ((long) THREADS * requestsPerThread);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * @return mean microseconds per verification
+     */
+    private static double measure(String[] tokens, int requests, Function<String, String> verify) {
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < requests; i++) {
+            if (verify.apply(tokens[i % tokens.length]) == null) {
+                throw new IllegalStateException("Token without subject");
+            }
+        }
+        return (System.nanoTime() - startedAt) / 1e3 / requests;
+    }
+}
@@ -0,0 +1,62 @@
+package com.cdamayab.flox.common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link BloomFilter}: no false negatives, a false positive rate close to the one it was sized for,
+ * and the bounds of its sizing.
+ */
+class BloomFilterTests {
+
+    private static final int EXPECTED = 10_000;
+
+    @Test
+    void reportsEveryAddedValue() {
+        BloomFilter filter = new BloomFilter(EXPECTED, 0.01);
+        for (int i = 0; i < EXPECTED; i++) {
+            filter.add("token-" + i);
+        }
+        for (int i = 0; i < EXPECTED; i++) {
+            assertTrue(filter.mightContain("token-" + i), "missed token-" + i);
+        }
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTheTarget() {
+        BloomFilter filter = new BloomFilter(EXPECTED, 0.01);
+        for (int i = 0; i < EXPECTED; i++) {
+            filter.add("token-" + i);
+        }
+        int falsePositives = 0;
+        int checks = 100_000;
+        for (int i = 0; i < checks; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / checks;
+        assertTrue(rate < 0.02, "false positive rate " + rate);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(1, 0.5);
+        assertFalse(filter.mightContain("anything"));
+        filter.add("anything");
+        assertTrue(filter.mightContain("anything"));
+    }
+
+    @Test
+    void rejectsInvalidSizing() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(-1, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(EXPECTED, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(EXPECTED, 1));
+        // About 4.8e10 bits, past the 2^32 positions the hash can address
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(Integer.MAX_VALUE, 1e-4));
+    }
+}
@@ -0,0 +1,121 @@
+package com.cdamayab.flox.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * {@link BoundedCache}: least recently used eviction, expiration, and loads that raced a write.
+ * The races are played on one thread, the loader writing to the cache while it runs.
+ */
+class BoundedCacheTests {
+
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    @Test
+    void evictsTheLeastRecentlyUsedEntry() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(2, TTL);
+        cache.put(1, "one");
+        cache.put(2, "two");
+        cache.get(1);
+        cache.put(3, "three");
+
+        assertEquals("one", cache.get(1));
+        assertNull(cache.get(2));
+        assertEquals("three", cache.get(3));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    void expiredEntriesAreMisses() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(10, Duration.ZERO);
+        cache.put(1, "one");
+
+        assertNull(cache.get(1));
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    void loadsOnMissOnly() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(10, TTL);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("one", cache.get(1, key -> {
+            loads.incrementAndGet();
+            return "one";
+        }));
+        assertEquals("one", cache.get(1, key -> {
+            loads.incrementAndGet();
+            return "other";
+        }));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void discardsALoadRacingAnInvalidationOfItsKey() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(10, TTL);
+        String loaded = cache.get(1, key -> {
+            cache.invalidate(1);
+            return "stale";
+        });
+
+        assertEquals("stale", loaded);
+        assertNull(cache.get(1));
+    }
+
+    @Test
+    void discardsALoadRacingAPutOfItsKey() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(10, TTL);
+        cache.get(1, key -> {
+            cache.put(1, "fresh");
+            return "stale";
+        });
+
+        assertEquals("fresh", cache.get(1));
+    }
+
+    @Test
+    void discardsALoadRacingAnInvalidationOfEveryKey() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(10, TTL);
+        cache.get(1, key -> {
+            cache.invalidateAll();
+            return "stale";
+        });
+
+        assertNull(cache.get(1));
+    }
+
+    @Test
+    void keepsALoadWhenAnotherKeyIsWritten() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(10, TTL);
+        cache.get(1, key -> {
+            cache.invalidate(2);
+            cache.put(3, "three");
+            return "one";
+        });
+
+        assertEquals("one", cache.get(1));
+    }
+
+    @Test
+    void aFailedLoadStoresNothing() {
+        BoundedCache<Integer, String> cache = new BoundedCache<>(10, TTL);
+        assertThrows(IllegalStateException.class, () -> cache.get(1, key -> {
+            throw new IllegalStateException("unavailable");
+        }));
+
+        assertEquals("one", cache.get(1, key -> "one"));
+    }
+
+    @Test
+    void rejectsAnEmptyCache() {
+        assertThrows(IllegalArgumentException.class, () -> new BoundedCache<Integer, String>(0, TTL));
+    }
+}
@@ -0,0 +1,85 @@
+package com.cdamayab.flox.common;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * {@link CsvReader}: quoting, escaped quotes, line breaks and blank lines.
+ */
+class CsvReaderTests {
+
+    @Test
+    void splitsPlainRecords() throws IOException {
+        assertEquals(List.of(List.of("name", "price"), List.of("Lamp", "12.5")), readAll("name,price\nLamp,12.5\n"));
+    }
+
+    @Test
+    void readsTheLastRecordWithoutALineBreak() throws IOException {
+        assertEquals(List.of(List.of("a", "b")), readAll("a,b"));
+    }
+
+    @Test
+    void keepsEmptyFields() throws IOException {
+        assertEquals(List.of(List.of("a", "", ""), List.of("", "b")), readAll("a,,\n,b\n"));
+    }
+
+    @Test
+    void keepsCommasInsideQuotes() throws IOException {
+        assertEquals(List.of(List.of("Desk, oak", "90")), readAll("\"Desk, oak\",90\n"));
+    }
+
+    @Test
+    void unescapesDoubledQuotes() throws IOException {
+        assertEquals(List.of(List.of("12\" screen", "\"")), readAll("\"12\"\" screen\",\"\"\"\"\n"));
+    }
+
+    @Test
+    void keepsLineBreaksInsideQuotesAndCountsThem() throws IOException {
+        try (CsvReader csv = new CsvReader(new StringReader("\"first line\nsecond line\",x\nnext,y\n"))) {
+            assertEquals(List.of("first line\nsecond line", "x"), csv.readRecord());
+            assertEquals(3, csv.getLineNumber());
+            assertEquals(List.of("next", "y"), csv.readRecord());
+            assertNull(csv.readRecord());
+        }
+    }
+
+    @Test
+    void acceptsCrLfAndSkipsBlankLines() throws IOException {
+        assertEquals(List.of(List.of("a", "b"), List.of("c", "d")), readAll("a,b\r\n\r\n\nc,d\r\n"));
+    }
+
+    @Test
+    void keepsQuotesInsideAnUnquotedField() throws IOException {
+        assertEquals(List.of(List.of("a\"b", "c")), readAll("a\"b,c\n"));
+    }
+
+    @Test
+    void emptyInputHasNoRecords() throws IOException {
+        assertEquals(List.of(), readAll(""));
+    }
+
+    @Test
+    void rejectsAnUnterminatedQuote() {
+        IOException error = assertThrows(IOException.class, () -> readAll("a,b\n\"open,c\n"));
+        assertEquals("Unterminated quoted field at line 3", error.getMessage());
+    }
+
+    private static List<List<String>> readAll(String text) throws IOException {
+        List<List<String>> records = new ArrayList<>();
+        try (CsvReader csv = new CsvReader(new StringReader(text))) {
+            List<String> record;
+            while ((record = csv.readRecord()) != null) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}
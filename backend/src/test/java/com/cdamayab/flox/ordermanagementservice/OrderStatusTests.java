@@ -0,0 +1,58 @@
+package com.cdamayab.flox.ordermanagementservice;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * {@link OrderStatus}: the whole transition table, checked pair by pair.
+ */
+class OrderStatusTests {
+
+    private static final Map<OrderStatus, Set<OrderStatus>> ALLOWED = Map.of(
+            OrderStatus.PENDING, EnumSet.of(OrderStatus.PAID, OrderStatus.CANCELLED),
+            OrderStatus.PAID, EnumSet.of(OrderStatus.SHIPPED, OrderStatus.CANCELLED),
+            OrderStatus.SHIPPED, EnumSet.of(OrderStatus.COMPLETED),
+            OrderStatus.COMPLETED, EnumSet.noneOf(OrderStatus.class),
+            OrderStatus.CANCELLED, EnumSet.noneOf(OrderStatus.class));
+
+    @Test
+    void allowsExactlyTheLifecycleTransitions() {
+        for (OrderStatus from : OrderStatus.values()) {
+            assertEquals(ALLOWED.get(from), from.next(), "next() of " + from);
+            for (OrderStatus to : OrderStatus.values()) {
+                assertEquals(ALLOWED.get(from).contains(to), from.canTransitionTo(to), from + " -> " + to);
+            }
+        }
+    }
+
+    @Test
+    void neverStaysInPlace() {
+        for (OrderStatus status : OrderStatus.values()) {
+            assertFalse(status.canTransitionTo(status), status + " -> " + status);
+        }
+    }
+
+    @Test
+    void onlyCompletedAndCancelledAreFinal() {
+        assertEquals(EnumSet.of(OrderStatus.COMPLETED, OrderStatus.CANCELLED),
+                EnumSet.copyOf(Arrays.stream(OrderStatus.values()).filter(OrderStatus::isFinal).toList()));
+    }
+
+    @Test
+    void predecessorsMirrorTheTable() {
+        assertEquals(EnumSet.noneOf(OrderStatus.class), OrderStatus.predecessorsOf(OrderStatus.PENDING));
+        assertEquals(EnumSet.of(OrderStatus.PENDING), OrderStatus.predecessorsOf(OrderStatus.PAID));
+        assertEquals(EnumSet.of(OrderStatus.PAID), OrderStatus.predecessorsOf(OrderStatus.SHIPPED));
+        assertEquals(EnumSet.of(OrderStatus.SHIPPED), OrderStatus.predecessorsOf(OrderStatus.COMPLETED));
+        assertEquals(EnumSet.of(OrderStatus.PENDING, OrderStatus.PAID), OrderStatus.predecessorsOf(OrderStatus.CANCELLED));
+        assertTrue(OrderStatus.predecessorsOf(OrderStatus.CANCELLED).stream().noneMatch(OrderStatus::isFinal));
+    }
+}
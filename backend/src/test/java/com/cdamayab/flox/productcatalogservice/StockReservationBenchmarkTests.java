@@ -0,0 +1,81 @@
+package com.cdamayab.flox.productcatalogservice;
+
+import com.cdamayab.flox.common.InsufficientStockException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Throughput of {@link ProductCatalogService#reserveStock(Long, Float)} on a single hot product.
+ * Needs the MySQL database; run with {@code FLOX_BENCHMARK=true gradle test}.
+ */
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "FLOX_BENCHMARK", matches = "true")
+class StockReservationBenchmarkTests {
+
+    private static final int THREADS = 200;
+    private static final int ATTEMPTS_PER_THREAD = 50;
+    private static final int INITIAL_STOCK = THREADS * ATTEMPTS_PER_THREAD / 2;
+
+    @Autowired
+    private ProductCatalogService productCatalogService;
+
+    @Test
+    void hotProductUnderConcurrentReservations() throws InterruptedException {
+        Product product = new Product();
+        product.setName("benchmark hot product");
+        product.setPrice(1f);
+        product.setStock((float) INITIAL_STOCK);
+        Long id = productCatalogService.createProduct(product).getId();
+
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                executor.execute(() -> {
+                    try {
+                        start.await();
+                        for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                            try {
+                                productCatalogService.reserveStock(id, 1f);
+                                reserved.incrementAndGet();
+                            } catch (InsufficientStockException e) {
+                                rejected.incrementAndGet();
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+            long startedAt = System.nanoTime();
+            start.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.MINUTES));
+            double seconds = (System.nanoTime() - startedAt) / 1e9;
+
+            int attempts = THREADS * ATTEMPTS_PER_THREAD;
+            System.out.printf("Stock reservations: %d threads, %d attempts in %.2f s (%.0f/s), %d reserved, %d rejected%n",
+                    THREADS, attempts, seconds, attempts / seconds, reserved.get(), rejected.get());
+
+            assertEquals(INITIAL_STOCK, reserved.get());
+            assertEquals(attempts - INITIAL_STOCK, rejected.get());
+            assertEquals(0f, productCatalogService.getProductById(id).getStock());
+        } finally {
+            executor.shutdownNow();
+            productCatalogService.deleteProduct(id);
+        }
+    }
+}